@@ -15,14 +15,19 @@
  */
 package com.github.difflib;
 
+import static java.util.stream.Collectors.toList;
+
+import com.github.difflib.algorithm.Change;
 import com.github.difflib.algorithm.DiffAlgorithmFactory;
 import com.github.difflib.algorithm.DiffAlgorithmI;
 import com.github.difflib.algorithm.DiffAlgorithmListener;
 import com.github.difflib.algorithm.myers.MyersDiff;
-import com.github.difflib.patch.AbstractDelta;
+import com.github.difflib.patch.ChangeDelta;
+import com.github.difflib.patch.Chunk;
+import com.github.difflib.patch.DeleteDelta;
+import com.github.difflib.patch.InsertDelta;
 import com.github.difflib.patch.Patch;
 import com.github.difflib.patch.PatchFailedException;
-import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
@@ -37,7 +42,10 @@ public final class DiffUtils {
 		/**
 		 * This factory generates the DEFAULT_DIFF algorithm for all these routines.
 		 */
-		static DiffAlgorithmFactory DEFAULT_DIFF = MyersDiff.factory();
+		static volatile DiffAlgorithmFactory DEFAULT_DIFF = MyersDiff.factory();
+
+		// the initial default, which is able to diff primitive values
+		private static final DiffAlgorithmFactory MYERS = DEFAULT_DIFF;
 
 		/**
 		 * Sets the default diff algorithm factory to be used by all diff routines.
@@ -119,6 +127,30 @@ public final class DiffUtils {
 				return DiffUtils.diff(source, target, new MyersDiff<>());
 		}
 
+		/**
+		 * Computes the difference between the original and revised list of elements
+		 * with default diff algorithm
+		 *
+		 * @param source a {@link List} representing the original text. Must not be {@code null}.
+		 * @param target a {@link List} representing the revised text. Must not be {@code null}.
+		 * @param equalizer a {@link BiPredicate} representing the equalizer object to replace the default compare
+		 * algorithm (Object.equals). If {@code null} the default equalizer of the
+		 * default algorithm is used.
+		 * @param progress a {@link DiffAlgorithmListener} representing the progress listener. Can be {@code null}.
+		 * @return The patch describing the difference between the original and
+		 * revised sequences. Never {@code null}.
+		 */
+		public static <T> Patch<T> diff(
+						List<? extends T> source,
+						List<? extends T> target,
+						BiPredicate<? super T, ? super T> equalizer,
+						DiffAlgorithmListener progress) {
+				if (equalizer != null) {
+						return DiffUtils.diff(source, target, DEFAULT_DIFF.create(equalizer), progress);
+				}
+				return DiffUtils.diff(source, target, new MyersDiff<>(), progress);
+		}
+
 		public static <T> Patch<T> diff(
 						List<? extends T> original,
 						List<? extends T> revised,
@@ -145,11 +177,40 @@ public final class DiffUtils {
 						DiffAlgorithmI<T> algorithm,
 						DiffAlgorithmListener progress,
 						boolean includeEqualParts) {
+				return diff(original, revised, algorithm, progress, includeEqualParts, false);
+		}
+
+		/**
+		 * Computes the difference between the original and revised list of elements
+		 * with default diff algorithm
+		 *
+		 * @param original a {@link List} representing the original text. Must not be {@code null}.
+		 * @param revised a {@link List} representing the revised text. Must not be {@code null}.
+		 * @param algorithm a {@link DiffAlgorithmI} representing the diff algorithm. Must not be {@code null}.
+		 * @param progress a {@link DiffAlgorithmListener} representing the diff algorithm listener.
+		 * @param includeEqualParts Include equal data parts into the patch.
+		 * @param referenceLines The chunks of the patch only reference the lines of original and revised
+		 * instead of copying them. Both lists must not be modified as long as the patch is in use.
+		 * @return The patch describing the difference between the original and
+		 * revised sequences. Never {@code null}.
+		 */
+		public static <T> Patch<T> diff(
+						List<? extends T> original,
+						List<? extends T> revised,
+						DiffAlgorithmI<T> algorithm,
+						DiffAlgorithmListener progress,
+						boolean includeEqualParts,
+						boolean referenceLines) {
 				Objects.requireNonNull(original, "original must not be null");
 				Objects.requireNonNull(revised, "revised must not be null");
 				Objects.requireNonNull(algorithm, "algorithm must not be null");
 
-				return Patch.generate(original, revised, algorithm.computeDiff(original, revised, progress), includeEqualParts);
+				return Patch.generate(
+								original,
+								revised,
+								algorithm.computeDiff(original, revised, progress),
+								includeEqualParts,
+								referenceLines);
 		}
 
 		/**
@@ -169,8 +230,9 @@ public final class DiffUtils {
 
 		/**
 		 * Computes the difference between the given texts inline. This one uses the
-		 * "trick" to make out of texts lists of characters, like DiffRowGenerator
-		 * does and merges those changes at the end together again.
+		 * "trick" to make out of texts lists of code points, like DiffRowGenerator
+		 * does and merges those changes at the end together again. The positions
+		 * of the chunks are character offsets into the texts.
 		 *
 		 * @param original a {@link String} representing the original text. Must not be {@code null}.
 		 * @param revised a {@link String} representing the revised text. Must not be {@code null}.
@@ -178,20 +240,75 @@ public final class DiffUtils {
 		 * revised sequences. Never {@code null}.
 		 */
 		public static Patch<String> diffInline(String original, String revised) {
-				List<String> origList = new ArrayList<>();
-				List<String> revList = new ArrayList<>();
-				for (Character character : original.toCharArray()) {
-						origList.add(character.toString());
+				int[] origCodePoints = original.codePoints().toArray();
+				int[] revCodePoints = revised.codePoints().toArray();
+				int[] origOffsets = charOffsets(original, origCodePoints);
+				int[] revOffsets = charOffsets(revised, revCodePoints);
+				List<Change> changes = diffCodePoints(origCodePoints, revCodePoints, null);
+				Patch<String> patch = new Patch<>(changes.size());
+				for (Change change : changes) {
+						Chunk<String> source = inlineChunk(original, origOffsets, change.startOriginal, change.endOriginal);
+						Chunk<String> target = inlineChunk(revised, revOffsets, change.startRevised, change.endRevised);
+						switch (change.deltaType) {
+								case DELETE:
+										patch.addDelta(new DeleteDelta<>(source, target));
+										break;
+								case INSERT:
+										patch.addDelta(new InsertDelta<>(source, target));
+										break;
+								case CHANGE:
+										patch.addDelta(new ChangeDelta<>(source, target));
+										break;
+								default:
+						}
 				}
-				for (Character character : revised.toCharArray()) {
-						revList.add(character.toString());
+				return patch;
+		}
+
+		/**
+		 * Computes the difference between two sequences of code points or other int
+		 * values. The built-in Myers algorithm compares the values without boxing
+		 * them, any other default algorithm gets them boxed.
+		 *
+		 * @param original the original values. Must not be {@code null}.
+		 * @param revised the revised values. Must not be {@code null}.
+		 * @param progress a {@link DiffAlgorithmListener} representing the progress listener. Can be {@code null}.
+		 * @return the changes between the indices of the values. Never {@code null}.
+		 */
+		public static List<Change> diffCodePoints(int[] original, int[] revised, DiffAlgorithmListener progress) {
+				DiffAlgorithmFactory factory = DEFAULT_DIFF;
+				if (factory == MYERS) {
+						return MyersDiff.computeDiff(original, revised, progress);
 				}
-				Patch<String> patch = DiffUtils.diff(origList, revList);
-				for (AbstractDelta<String> delta : patch.getDeltas()) {
-						delta.getSource().setLines(compressLines(delta.getSource().getLines(), ""));
-						delta.getTarget().setLines(compressLines(delta.getTarget().getLines(), ""));
+				return factory.<Integer>create()
+								.computeDiff(
+												Arrays.stream(original).boxed().collect(toList()),
+												Arrays.stream(revised).boxed().collect(toList()),
+												progress);
+		}
+
+		/**
+		 * @return the character offset of each code point and the text length, or
+		 * null if each code point is a single character
+		 */
+		private static int[] charOffsets(String text, int[] codePoints) {
+				if (text.length() == codePoints.length) {
+						return null;
 				}
-				return patch;
+				int[] offsets = new int[codePoints.length + 1];
+				for (int i = 0; i < codePoints.length; i++) {
+						offsets[i + 1] = offsets[i] + Character.charCount(codePoints[i]);
+				}
+				return offsets;
+		}
+
+		private static Chunk<String> inlineChunk(String text, int[] offsets, int start, int end) {
+				int from = offsets == null ? start : offsets[start];
+				if (start == end) {
+						return new Chunk<>(from, Collections.emptyList());
+				}
+				int to = offsets == null ? end : offsets[end];
+				return new Chunk<>(from, Collections.singletonList(text.substring(from, to)));
 		}
 
 		/**
@@ -218,12 +335,5 @@ public final class DiffUtils {
 				return patch.restore(revised);
 		}
 
-		private static List<String> compressLines(List<String> lines, String delimiter) {
-				if (lines.isEmpty()) {
-						return Collections.emptyList();
-				}
-				return Collections.singletonList(String.join(delimiter, lines));
-		}
-
 		private DiffUtils() {}
 }
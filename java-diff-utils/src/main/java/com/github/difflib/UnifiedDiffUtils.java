@@ -19,14 +19,14 @@ import com.github.difflib.patch.AbstractDelta;
 import com.github.difflib.patch.ChangeDelta;
 import com.github.difflib.patch.Chunk;
 import com.github.difflib.patch.Patch;
+import java.io.IOException;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Arrays;
 import java.util.List;
-import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
-import java.util.stream.Collectors;
 
 /**
  *
@@ -101,8 +101,10 @@ public final class UnifiedDiffUtils {
 						List<String> oldChunkLines = new ArrayList<>();
 						List<String> newChunkLines = new ArrayList<>();
 
-						List<Integer> removePosition = new ArrayList<>();
-						List<Integer> addPosition = new ArrayList<>();
+						int[] removePosition = new int[rawChunk.size()];
+						int[] addPosition = new int[rawChunk.size()];
+						int removeCount = 0;
+						int addCount = 0;
 						int removeNum = 0;
 						int addNum = 0;
 						for (String[] raw_line : rawChunk) {
@@ -112,20 +114,20 @@ public final class UnifiedDiffUtils {
 										removeNum++;
 										oldChunkLines.add(rest);
 										if ("-".equals(tag)) {
-												removePosition.add(old_ln - 1 + removeNum);
+												removePosition[removeCount++] = old_ln - 1 + removeNum;
 										}
 								}
 								if (" ".equals(tag) || "+".equals(tag)) {
 										addNum++;
 										newChunkLines.add(rest);
 										if ("+".equals(tag)) {
-												addPosition.add(new_ln - 1 + addNum);
+												addPosition[addCount++] = new_ln - 1 + addNum;
 										}
 								}
 						}
 						patch.addDelta(new ChangeDelta<>(
-										new Chunk<>(old_ln - 1, oldChunkLines, removePosition),
-										new Chunk<>(new_ln - 1, newChunkLines, addPosition)));
+										Chunk.owning(old_ln - 1, oldChunkLines, Arrays.copyOf(removePosition, removeCount)),
+										Chunk.owning(new_ln - 1, newChunkLines, Arrays.copyOf(addPosition, addCount))));
 						rawChunk.clear();
 				}
 		}
@@ -183,8 +185,7 @@ public final class UnifiedDiffUtils {
 												// if it isn't, output the current set,
 												// then create a new set and add the current Delta to
 												// it.
-												List<String> curBlock = processDeltas(originalLines, deltas, contextSize, false);
-												ret.addAll(curBlock);
+												processDeltas(ret, originalLines, deltas, contextSize, false);
 												deltas.clear();
 												deltas.add(nextDelta);
 										}
@@ -192,9 +193,7 @@ public final class UnifiedDiffUtils {
 								}
 						}
 						// don't forget to process the last set of Deltas
-						List<String> curBlock = processDeltas(
-										originalLines, deltas, contextSize, patchDeltas.size() == 1 && originalFileName == null);
-						ret.addAll(curBlock);
+						processDeltas(ret, originalLines, deltas, contextSize, patchDeltas.size() == 1 && originalFileName == null);
 						return ret;
 				}
 				return new ArrayList<>();
@@ -204,18 +203,17 @@ public final class UnifiedDiffUtils {
 		 * processDeltas takes a list of Deltas and outputs them together in a single block of
 		 * Unified-Diff-format text.  Author: Bill James (tankerbay@gmail.com).
 		 *
+		 * @param ret - receives the lines of the block
 		 * @param origLines - the lines of the original file
 		 * @param deltas - the Deltas to be output as a single block
 		 * @param contextSize - the number of lines of context to place around block
-		 * @return
 		 */
-		private static List<String> processDeltas(
-						List<String> origLines, List<AbstractDelta<String>> deltas, int contextSize, boolean newFile) {
-				List<String> buffer = new ArrayList<>();
-				int origTotal = 0; // counter for total lines output from Original
-				int revTotal = 0; // counter for total lines output from Original
-				int line;
-
+		private static void processDeltas(
+						List<String> ret,
+						List<String> origLines,
+						List<AbstractDelta<String>> deltas,
+						int contextSize,
+						boolean newFile) {
 				AbstractDelta<String> curDelta = deltas.get(0);
 				int origStart;
 				if (newFile) {
@@ -239,17 +237,53 @@ public final class UnifiedDiffUtils {
 						contextStart = 0; // clamp to the start of the file
 				}
 
+				// count the lines first, so the block header is added before them
+				int context = Math.max(0, curDelta.getSource().getPosition() - contextStart);
+				int origTotal = context; // counter for total lines output from Original
+				int revTotal = context; // counter for total lines output from Revised
+				AbstractDelta<String> prevDelta = null;
+				for (AbstractDelta<String> delta : deltas) {
+						if (prevDelta != null) {
+								int intermediate = Math.max(
+												0,
+												delta.getSource().getPosition()
+																- prevDelta.getSource().getPosition()
+																- prevDelta.getSource().size());
+								origTotal += intermediate;
+								revTotal += intermediate;
+						}
+						origTotal += delta.getSource().size();
+						revTotal += delta.getTarget().size();
+						prevDelta = delta;
+				}
+				// the post-Delta context code is clamped to the end of the file
+				int afterStart =
+								prevDelta.getSource().getPosition() + prevDelta.getSource().size();
+				int after = Math.max(0, Math.min(afterStart + contextSize, origLines.size()) - afterStart);
+				origTotal += after;
+				revTotal += after;
+
+				// Create the block header, conforming to the Unified Diff standard
+				StringBuilder header = new StringBuilder();
+				header.append("@@ -");
+				header.append(origStart);
+				header.append(",");
+				header.append(origTotal);
+				header.append(" +");
+				header.append(revStart);
+				header.append(",");
+				header.append(revTotal);
+				header.append(" @@");
+				ret.add(header.toString());
+
 				// output the context before the first Delta
-				for (line = contextStart; line < curDelta.getSource().getPosition(); line++) { //
-						buffer.add(" " + origLines.get(line));
-						origTotal++;
-						revTotal++;
+				int line;
+				for (line = contextStart; line < curDelta.getSource().getPosition(); line++) {
+						ret.add(" " + origLines.get(line));
 				}
 
 				// output the first Delta
-				buffer.addAll(getDeltaText(curDelta));
-				origTotal += curDelta.getSource().getLines().size();
-				revTotal += curDelta.getTarget().getLines().size();
+				addDeltaText(ret, curDelta);
 
 				int deltaIndex = 1;
 				while (deltaIndex < deltas.size()) { // for each of the other Deltas
@@ -258,58 +292,32 @@ public final class UnifiedDiffUtils {
 										+ curDelta.getSource().getLines().size();
 						for (line = intermediateStart; line < nextDelta.getSource().getPosition(); line++) {
 								// output the code between the last Delta and this one
-								buffer.add(" " + origLines.get(line));
-								origTotal++;
-								revTotal++;
+								ret.add(" " + origLines.get(line));
 						}
-						buffer.addAll(getDeltaText(nextDelta)); // output the Delta
-						origTotal += nextDelta.getSource().getLines().size();
-						revTotal += nextDelta.getTarget().getLines().size();
+						addDeltaText(ret, nextDelta); // output the Delta
 						curDelta = nextDelta;
 						deltaIndex++;
 				}
 
-				// Now output the post-Delta context code, clamping the end of the file
-				contextStart = curDelta.getSource().getPosition()
-								+ curDelta.getSource().getLines().size();
-				for (line = contextStart; (line < (contextStart + contextSize)) && (line < origLines.size()); line++) {
-						buffer.add(" " + origLines.get(line));
-						origTotal++;
-						revTotal++;
+				// Now output the post-Delta context code
+				for (line = afterStart; line < afterStart + after; line++) {
+						ret.add(" " + origLines.get(line));
 				}
-
-				// Create and insert the block header, conforming to the Unified Diff
-				// standard
-				StringBuilder header = new StringBuilder();
-				header.append("@@ -");
-				header.append(origStart);
-				header.append(",");
-				header.append(origTotal);
-				header.append(" +");
-				header.append(revStart);
-				header.append(",");
-				header.append(revTotal);
-				header.append(" @@");
-				buffer.add(0, header.toString());
-
-				return buffer;
 		}
 
 		/**
-		 * getDeltaText returns the lines to be added to the Unified Diff text from the Delta parameter.  Author: Bill James (tankerbay@gmail.com).
+		 * addDeltaText adds the lines of the Delta parameter to the Unified Diff text.  Author: Bill James (tankerbay@gmail.com).
 		 *
+		 * @param ret - receives the lines of code
 		 * @param delta - the Delta to output
-		 * @return list of String lines of code.
 		 */
-		private static List<String> getDeltaText(AbstractDelta<String> delta) {
-				List<String> buffer = new ArrayList<>();
+		private static void addDeltaText(List<String> ret, AbstractDelta<String> delta) {
 				for (String line : delta.getSource().getLines()) {
-						buffer.add("-" + line);
+						ret.add("-" + line);
 				}
 				for (String line : delta.getTarget().getLines()) {
-						buffer.add("+" + line);
+						ret.add("+" + line);
 				}
-				return buffer;
 		}
 
 		private UnifiedDiffUtils() {}
@@ -347,117 +355,104 @@ public final class UnifiedDiffUtils {
 		 */
 		public static List<String> generateOriginalAndDiff(
 						List<String> original, List<String> revised, String originalFileName, String revisedFileName) {
-				String originalFileNameTemp = originalFileName;
-				String revisedFileNameTemp = revisedFileName;
-				if (originalFileNameTemp == null) {
-						originalFileNameTemp = "original";
-				}
-				if (revisedFileNameTemp == null) {
-						revisedFileNameTemp = "revised";
-				}
-				Patch<String> patch = DiffUtils.diff(original, revised);
-				List<String> unifiedDiff = generateUnifiedDiff(originalFileNameTemp, revisedFileNameTemp, original, patch, 0);
-				if (unifiedDiff.isEmpty()) {
-						unifiedDiff.add("--- " + originalFileNameTemp);
-						unifiedDiff.add("+++ " + revisedFileNameTemp);
-						unifiedDiff.add("@@ -0,0 +0,0 @@");
-				} else if (unifiedDiff.size() >= 3 && !unifiedDiff.get(2).contains("@@ -1,")) {
-						unifiedDiff.set(1, unifiedDiff.get(1));
-						unifiedDiff.add(2, "@@ -0,0 +0,0 @@");
-				}
-				List<String> originalWithPrefix = original.stream().map(v -> " " + v).collect(Collectors.toList());
-				return insertOrig(originalWithPrefix, unifiedDiff);
-		}
-
-		// Insert the diff format to the original file
-		private static List<String> insertOrig(List<String> original, List<String> unifiedDiff) {
-				List<String> result = new ArrayList<>();
-				List<List<String>> diffList = new ArrayList<>();
-				List<String> diff = new ArrayList<>();
-				for (int i = 0; i < unifiedDiff.size(); i++) {
-						String u = unifiedDiff.get(i);
-						if (u.startsWith("@@") && !"@@ -0,0 +0,0 @@".equals(u) && !u.contains("@@ -1,")) {
-								List<String> twoList = new ArrayList<>();
-								twoList.addAll(diff);
-								diffList.add(twoList);
-								diff.clear();
-								diff.add(u);
-								continue;
-						}
-						if (i == unifiedDiff.size() - 1) {
-								diff.add(u);
-								List<String> twoList = new ArrayList<>();
-								twoList.addAll(diff);
-								diffList.add(twoList);
-								diff.clear();
-								break;
-						}
-						diff.add(u);
-				}
-				insertOrig(diffList, result, original);
+				List<String> result = new ArrayList<>(original.size() + 3);
+				writeOriginalAndDiff(
+								original,
+								revised,
+								originalFileName,
+								revisedFileName,
+								(prefix, text) -> result.add(prefix.isEmpty() ? text : prefix + text));
 				return result;
 		}
 
-		// Insert the diff format to the original file
-		private static void insertOrig(List<List<String>> diffList, List<String> result, List<String> original) {
-				for (int i = 0; i < diffList.size(); i++) {
-						List<String> diff = diffList.get(i);
-						List<String> nexDiff = i == diffList.size() - 1 ? null : diffList.get(i + 1);
-						String simb = i == 0 ? diff.get(2) : diff.get(0);
-						String nexSimb = nexDiff == null ? null : nexDiff.get(0);
-						insert(result, diff);
-						Map<String, Integer> map = getRowMap(simb);
-						if (null != nexSimb) {
-								Map<String, Integer> nexMap = getRowMap(nexSimb);
-								int start = 0;
-								if (map.get("orgRow") != 0) {
-										start = map.get("orgRow") + map.get("orgDel") - 1;
-								}
-								int end = nexMap.get("revRow") - 2;
-								insert(result, getOrigList(original, start, end));
-						}
-						int start = map.get("orgRow") + map.get("orgDel") - 1;
-						start = start == -1 ? 0 : start;
-						if (simb.contains("@@ -1,") && null == nexSimb && map.get("orgDel") != original.size()) {
-								insert(result, getOrigList(original, start, original.size() - 1));
-						} else if (null == nexSimb && (map.get("orgRow") + map.get("orgDel") - 1) < original.size()) {
-								insert(result, getOrigList(original, start, original.size() - 1));
-						}
-				}
+		/**
+		 * Writes the same lines as {@link #generateOriginalAndDiff(List, List, String, String)} to the
+		 * appendable, each terminated by a line feed. The lines are written in one pass over the
+		 * deltas and the original file.
+		 *
+		 * @param original         Original file content
+		 * @param revised          revised file content
+		 * @param originalFileName Original file name
+		 * @param revisedFileName  revised file name
+		 * @param out              receives the original file and diff
+		 * @throws IOException if the appendable fails
+		 */
+		public static void writeOriginalAndDiff(
+						List<String> original,
+						List<String> revised,
+						String originalFileName,
+						String revisedFileName,
+						Appendable out)
+						throws IOException {
+				Objects.requireNonNull(out, "out must not be null");
+				writeOriginalAndDiff(original, revised, originalFileName, revisedFileName, (prefix, text) -> out.append(prefix)
+								.append(text)
+								.append('\n'));
 		}
 
-		// Insert the unchanged content in the source file into result
-		private static void insert(List<String> result, List<String> noChangeContent) {
-				for (String ins : noChangeContent) {
-						result.add(ins);
-				}
-		}
+		/**
+		 * Receives the lines of the original file and diff.
+		 */
+		@FunctionalInterface
+		private interface LineOutput<E extends Exception> {
 
-		// Parse the line containing @@ to get the modified line number to delete or add a few lines
-		private static Map<String, Integer> getRowMap(String str) {
-				Map<String, Integer> map = new HashMap<>();
-				if (str.startsWith("@@")) {
-						String[] sp = str.split(" ");
-						String org = sp[1];
-						String[] orgSp = org.split(",");
-						map.put("orgRow", Integer.valueOf(orgSp[0].substring(1)));
-						map.put("orgDel", Integer.valueOf(orgSp[1]));
-						String[] revSp = org.split(",");
-						map.put("revRow", Integer.valueOf(revSp[0].substring(1)));
-						map.put("revAdd", Integer.valueOf(revSp[1]));
-				}
-				return map;
+				void line(String prefix, String text) throws E;
 		}
 
-		// Get the specified part of the line from the original file
-		private static List<String> getOrigList(List<String> originalWithPrefix, int start, int end) {
-				List<String> list = new ArrayList<>();
-				if (originalWithPrefix.size() >= 1 && start <= end && end < originalWithPrefix.size()) {
-						int startTemp = start;
-						for (; startTemp <= end; startTemp++) {
-								list.add(originalWithPrefix.get(startTemp));
+		// Write the diff without context, and the unchanged lines of the original file between its blocks
+		private static <E extends Exception> void writeOriginalAndDiff(
+						List<String> original,
+						List<String> revised,
+						String originalFileName,
+						String revisedFileName,
+						LineOutput<E> out)
+						throws E {
+				Patch<String> patch = DiffUtils.diff(original, revised);
+				List<AbstractDelta<String>> deltas = patch.getDeltas();
+				out.line("--- ", originalFileName == null ? "original" : originalFileName);
+				out.line("+++ ", revisedFileName == null ? "revised" : revisedFileName);
+				if (deltas.isEmpty() || deltas.get(0).getSource().getPosition() != 0) {
+						out.line("", "@@ -0,0 +0,0 @@");
+				}
+				int line = 0; // the next unchanged line of the original file
+				int first = 0;
+				while (first < deltas.size()) {
+						// deltas touching each other form one block, like in generateUnifiedDiff
+						int end = first + 1;
+						while (end < deltas.size()
+										&& deltas.get(end - 1).getSource().getPosition()
+																		+ deltas.get(end - 1).getSource().size()
+														>= deltas.get(end).getSource().getPosition()) {
+								end++;
+						}
+						AbstractDelta<String> firstDelta = deltas.get(first);
+						for (; line < firstDelta.getSource().getPosition(); line++) {
+								out.line(" ", original.get(line));
+						}
+						int origTotal = 0;
+						int revTotal = 0;
+						for (int i = first; i < end; i++) {
+								origTotal += deltas.get(i).getSource().size();
+								revTotal += deltas.get(i).getTarget().size();
 						}
+						out.line(
+										"@@ -",
+										Math.max(1, firstDelta.getSource().getPosition() + 1) + "," + origTotal + " +"
+														+ Math.max(1, firstDelta.getTarget().getPosition() + 1) + "," + revTotal + " @@");
+						for (int i = first; i < end; i++) {
+								for (String deleted : deltas.get(i).getSource().getLines()) {
+										out.line("-", deleted);
+								}
+								for (String inserted : deltas.get(i).getTarget().getLines()) {
+										out.line("+", inserted);
+								}
+						}
+						AbstractDelta<String> lastDelta = deltas.get(end - 1);
+						line = lastDelta.getSource().getPosition() + lastDelta.getSource().size();
+						first = end;
+				}
+				for (; line < original.size(); line++) {
+						out.line(" ", original.get(line));
 				}
-				return list;
 		}
 }
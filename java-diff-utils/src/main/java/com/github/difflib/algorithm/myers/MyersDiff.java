@@ -22,6 +22,7 @@ import com.github.difflib.algorithm.DiffAlgorithmListener;
 import com.github.difflib.patch.DeltaType;
 import com.github.difflib.patch.Patch;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Objects;
 import java.util.function.BiPredicate;
@@ -181,6 +182,133 @@ public final class MyersDiff<T> implements DiffAlgorithmI<T> {
 				return changes;
 		}
 
+		/**
+		 * Computes the differences between two sequences of primitive values, e.g.
+		 * the code points of two texts. The changes are the same an instance with
+		 * the default equalizer computes for the boxed values, but neither the
+		 * values nor the path nodes are allocated as objects.
+		 *
+		 * @param source the original sequence
+		 * @param target the revised sequence
+		 * @param progress the progress listener or null
+		 * @return the changes from source to target
+		 */
+		public static List<Change> computeDiff(final int[] source, final int[] target, DiffAlgorithmListener progress) {
+				Objects.requireNonNull(source, "source must not be null");
+				Objects.requireNonNull(target, "target must not be null");
+
+				if (progress != null) {
+						progress.diffStart();
+				}
+				final int N = source.length;
+				final int M = target.length;
+
+				final int MAX = N + M + 1;
+				final int size = 1 + 2 * MAX;
+				final int middle = size / 2;
+				// the furthest i reached on each diagonal and the last snake of its path
+				final int[] diagonal = new int[size];
+				final int[] lastSnake = new int[size];
+				// [startI, startJ, endI, endJ, previous snake] of each non empty snake
+				int[] snakes = new int[5 * 16];
+				int snakeCount = 0;
+
+				lastSnake[middle + 1] = -1;
+				for (int d = 0; d < MAX; d++) {
+						if (progress != null) {
+								progress.diffStep(d, MAX);
+						}
+						for (int k = -d; k <= d; k += 2) {
+								final int kmiddle = middle + k;
+								final int kplus = kmiddle + 1;
+								final int kminus = kmiddle - 1;
+								int prev;
+								int i;
+
+								if ((k == -d) || (k != d && diagonal[kminus] < diagonal[kplus])) {
+										i = diagonal[kplus];
+										prev = lastSnake[kplus];
+								} else {
+										i = diagonal[kminus] + 1;
+										prev = lastSnake[kminus];
+								}
+
+								int j = i - k;
+								final int startI = i;
+
+								while (i < N && j < M && source[i] == target[j]) {
+										i++;
+										j++;
+								}
+
+								if (i != startI) {
+										if (snakeCount * 5 == snakes.length) {
+												snakes = Arrays.copyOf(snakes, snakes.length * 2);
+										}
+										int s = snakeCount * 5;
+										snakes[s] = startI;
+										snakes[s + 1] = startI - k;
+										snakes[s + 2] = i;
+										snakes[s + 3] = j;
+										snakes[s + 4] = prev;
+										prev = snakeCount++;
+								}
+
+								diagonal[kmiddle] = i;
+								lastSnake[kmiddle] = prev;
+
+								if (i >= N && j >= M) {
+										List<Change> result = buildRevision(snakes, prev, i != startI, i, j);
+										if (progress != null) {
+												progress.diffEnd();
+										}
+										return result;
+								}
+						}
+				}
+				// According to Myers, this cannot happen
+				throw new IllegalStateException("could not find a diff path");
+		}
+
+		/**
+		 * Builds the changes between the snakes of a path found by
+		 * {@link #computeDiff(int[], int[], DiffAlgorithmListener)}, in the same
+		 * order as {@link #buildRevision(PathNode, List, List)}.
+		 */
+		private static List<Change> buildRevision(int[] snakes, int lastSnake, boolean endsWithSnake, int endI, int endJ) {
+				List<Change> changes = new ArrayList<>();
+				int snake = lastSnake;
+				int i = endI;
+				int j = endJ;
+				if (endsWithSnake) {
+						i = snakes[snake * 5];
+						j = snakes[snake * 5 + 1];
+						snake = snakes[snake * 5 + 4];
+				}
+				for (; ; ) {
+						int ianchor = snake < 0 ? 0 : snakes[snake * 5 + 2];
+						int janchor = snake < 0 ? 0 : snakes[snake * 5 + 3];
+						if (ianchor == i && janchor == j) {
+								// a snake right at the start
+								break;
+						}
+						if (ianchor == i) {
+								changes.add(new Change(DeltaType.INSERT, ianchor, i, janchor, j));
+						} else if (janchor == j) {
+								changes.add(new Change(DeltaType.DELETE, ianchor, i, janchor, j));
+						} else {
+								changes.add(new Change(DeltaType.CHANGE, ianchor, i, janchor, j));
+						}
+						if (snake < 0) {
+								break;
+						}
+						i = snakes[snake * 5];
+						j = snakes[snake * 5 + 1];
+						snake = snakes[snake * 5 + 4];
+				}
+				return changes;
+		}
+
 		/**
 		 * Factory to create instances of this specific diff algorithm.
 		 */
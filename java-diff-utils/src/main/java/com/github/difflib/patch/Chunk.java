@@ -15,11 +15,16 @@
  */
 package com.github.difflib.patch;
 
+import java.io.IOException;
+import java.io.ObjectOutputStream;
 import java.io.Serializable;
+import java.util.AbstractList;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
+import java.util.RandomAccess;
 
 /**
  * Holds the information about the part of text involved in the diff process
@@ -39,7 +44,10 @@ public final class Chunk<T> implements Serializable {
 
 		private final int position;
 		private List<T> lines;
-		private final List<Integer> changePosition;
+		// exactly sized, replaced when changed through getChangePosition
+		private int[] changePosition;
+		// lines is a view of a foreign list, see referencing
+		private transient boolean referencing;
 
 		/**
 		 * Creates a chunk and saves a copy of affected lines
@@ -51,7 +59,43 @@ public final class Chunk<T> implements Serializable {
 		public Chunk(int position, List<T> lines, List<Integer> changePosition) {
 				this.position = position;
 				this.lines = new ArrayList<>(lines);
-				this.changePosition = changePosition != null ? new ArrayList<>(changePosition) : null;
+				this.changePosition = toArray(changePosition);
+		}
+
+		private Chunk(int position, List<T> lines, int[] changePosition, boolean referencing) {
+				this.position = position;
+				this.lines = lines;
+				this.changePosition = changePosition;
+				this.referencing = referencing;
+		}
+
+		/**
+		 * Creates a chunk that only references the given lines instead of copying them. This saves
+		 * memory for large texts, since the chunk is a view of the source list. Therefore the source
+		 * list must not be modified as long as this chunk is in use. The lines of this chunk are not
+		 * modifiable.
+		 *
+		 * @param position the start position
+		 * @param source the complete source text
+		 * @param from the index of the first affected line within source
+		 * @param to the index after the last affected line within source
+		 * @return the chunk referencing source
+		 */
+		public static <T> Chunk<T> referencing(int position, List<? extends T> source, int from, int to) {
+				return new Chunk<>(position, Collections.unmodifiableList(source.subList(from, to)), null, true);
+		}
+
+		/**
+		 * Creates a chunk that takes over the given lines and change positions. No copies are made,
+		 * so both must not be modified by the caller afterwards.
+		 *
+		 * @param position the start position
+		 * @param lines the affected lines
+		 * @param changePosition the positions of changed lines or null
+		 * @return the chunk
+		 */
+		public static <T> Chunk<T> owning(int position, List<T> lines, int[] changePosition) {
+				return new Chunk<>(position, lines, changePosition, false);
 		}
 
 		/**
@@ -74,7 +118,7 @@ public final class Chunk<T> implements Serializable {
 		public Chunk(int position, T[] lines, List<Integer> changePosition) {
 				this.position = position;
 				this.lines = Arrays.asList(lines);
-				this.changePosition = changePosition != null ? new ArrayList<>(changePosition) : null;
+				this.changePosition = toArray(changePosition);
 		}
 
 		/**
@@ -133,6 +177,7 @@ public final class Chunk<T> implements Serializable {
 
 		public void setLines(List<T> lines) {
 				this.lines = lines;
+				this.referencing = false;
 		}
 
 		/**
@@ -143,9 +188,31 @@ public final class Chunk<T> implements Serializable {
 		}
 
 		/**
-		 * @return the positions of changed lines of chunk in the text
+		 * @return the positions of changed lines of chunk in the text or null; changes of the list
+		 * are written through to this chunk
 		 */
 		public List<Integer> getChangePosition() {
+				return changePosition != null ? new ChangePositionList() : null;
+		}
+
+		/**
+		 * @return a copy of the positions of changed lines of chunk in the text or null
+		 */
+		public int[] getChangePositionArray() {
+				return changePosition != null ? changePosition.clone() : null;
+		}
+
+		/**
+		 * @return the number of positions of changed lines or -1 if the chunk has none
+		 */
+		public int getChangePositionCount() {
+				return changePosition != null ? changePosition.length : -1;
+		}
+
+		/**
+		 * @return the positions of changed lines without copying them, must not be modified
+		 */
+		int[] changePositions() {
 				return changePosition;
 		}
 
@@ -160,6 +227,26 @@ public final class Chunk<T> implements Serializable {
 				return getPosition() + size() - 1;
 		}
 
+		private static int[] toArray(List<Integer> list) {
+				if (list == null) {
+						return null;
+				}
+				int[] array = new int[list.size()];
+				for (int i = 0; i < array.length; i++) {
+						array[i] = list.get(i);
+				}
+				return array;
+		}
+
+		private void writeObject(ObjectOutputStream out) throws IOException {
+				// views of foreign lists are not serializable, so those lines are materialized
+				ObjectOutputStream.PutField fields = out.putFields();
+				fields.put("position", position);
+				fields.put("lines", referencing ? new ArrayList<>(lines) : lines);
+				fields.put("changePosition", changePosition);
+				out.writeFields();
+		}
+
 		@Override
 		public int hashCode() {
 				return Objects.hash(lines, position, size());
@@ -191,4 +278,53 @@ public final class Chunk<T> implements Serializable {
 		public String toString() {
 				return "[position: " + position + ", size: " + size() + ", lines: " + lines + "]";
 		}
+
+		/**
+		 * Boxing list view of the change positions. Adding or removing a position replaces the array,
+		 * which is expected to be rare.
+		 */
+		private final class ChangePositionList extends AbstractList<Integer> implements RandomAccess {
+
+				@Override
+				public Integer get(int index) {
+						return changePosition[index];
+				}
+
+				@Override
+				public Integer set(int index, Integer element) {
+						int previous = changePosition[index];
+						changePosition[index] = element;
+						return previous;
+				}
+
+				@Override
+				public void add(int index, Integer element) {
+						int value = element;
+						if (index < 0 || index > changePosition.length) {
+								throw new IndexOutOfBoundsException("index " + index + ", size " + changePosition.length);
+						}
+						int[] values = new int[changePosition.length + 1];
+						System.arraycopy(changePosition, 0, values, 0, index);
+						values[index] = value;
+						System.arraycopy(changePosition, index, values, index + 1, changePosition.length - index);
+						changePosition = values;
+						modCount++;
+				}
+
+				@Override
+				public Integer remove(int index) {
+						int previous = changePosition[index];
+						int[] values = new int[changePosition.length - 1];
+						System.arraycopy(changePosition, 0, values, 0, index);
+						System.arraycopy(changePosition, index + 1, values, index, values.length - index);
+						changePosition = values;
+						modCount++;
+						return previous;
+				}
+
+				@Override
+				public int size() {
+						return changePosition.length;
+				}
+		}
 }
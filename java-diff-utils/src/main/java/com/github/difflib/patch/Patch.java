@@ -27,6 +27,7 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.ListIterator;
+import java.util.Objects;
 
 /**
  * Describes the patch holding all deltas between the original and revised
@@ -38,6 +39,7 @@ import java.util.ListIterator;
 public final class Patch<T> implements Serializable {
 
 		private final List<AbstractDelta<T>> deltas;
+		private final boolean frozen;
 
 		public Patch() {
 				this(10);
@@ -45,6 +47,37 @@ public final class Patch<T> implements Serializable {
 
 		public Patch(int estimatedPatchSize) {
 				deltas = new ArrayList<>(estimatedPatchSize);
+				frozen = false;
+		}
+
+		private Patch(List<AbstractDelta<T>> sortedDeltas, ConflictOutput<T> conflictOutput) {
+				this.deltas = Collections.unmodifiableList(sortedDeltas);
+				this.frozen = true;
+				this.conflictOutput = conflictOutput;
+		}
+
+		/**
+		 * Creates an immutable snapshot of this patch. The deltas of the snapshot are sorted once
+		 * and can not be changed anymore, so the snapshot can be shared between threads and read
+		 * concurrently without copying or locking, e.g. to apply or render it. The delta objects
+		 * themselves are shared with this patch and must not be modified.
+		 *
+		 * @return the frozen patch, this if this patch is already frozen
+		 */
+		public Patch<T> freeze() {
+				if (frozen) {
+						return this;
+				}
+				List<AbstractDelta<T>> sorted = new ArrayList<>(deltas);
+				sorted.sort(comparing(d -> d.getSource().getPosition()));
+				return new Patch<>(sorted, conflictOutput);
+		}
+
+		/**
+		 * @return true if this patch is an immutable snapshot created by {@link #freeze()}
+		 */
+		public boolean isFrozen() {
+				return frozen;
 		}
 
 		/**
@@ -226,13 +259,18 @@ public final class Patch<T> implements Serializable {
 								}
 						};
 
-		private ConflictOutput<T> conflictOutput = CONFLICT_PRODUCES_EXCEPTION;
+		private volatile ConflictOutput<T> conflictOutput = CONFLICT_PRODUCES_EXCEPTION;
 
 		/**
 		 * Alter normal conflict output behaviour to e.g. include some conflict
 		 * statements in the result, like git does it.
+		 *
+		 * @throws UnsupportedOperationException if this patch is frozen
 		 */
 		public Patch withConflictOutput(ConflictOutput<T> conflictOutput) {
+				if (frozen) {
+						throw new UnsupportedOperationException("a frozen patch can not be changed");
+				}
 				this.conflictOutput = conflictOutput;
 				return this;
 		}
@@ -270,18 +308,26 @@ public final class Patch<T> implements Serializable {
 		 * Add the given delta to this patch
 		 *
 		 * @param delta the given delta
+		 * @throws UnsupportedOperationException if this patch is frozen
 		 */
 		public void addDelta(AbstractDelta<T> delta) {
+				if (frozen) {
+						throw new UnsupportedOperationException("a frozen patch can not be changed");
+				}
 				deltas.add(delta);
 		}
 
 		/**
-		 * Get the list of computed deltas
+		 * Get the list of computed deltas sorted by their source position. For a patch, that is
+		 * not frozen, the internal list is sorted by this call, so it must not be called
+		 * concurrently. Use {@link #freeze()} to share a patch between threads.
 		 *
 		 * @return the deltas
 		 */
 		public List<AbstractDelta<T>> getDeltas() {
-				deltas.sort(comparing(d -> d.getSource().getPosition()));
+				if (!frozen) {
+						deltas.sort(comparing(d -> d.getSource().getPosition()));
+				}
 				return deltas;
 		}
 
@@ -294,12 +340,36 @@ public final class Patch<T> implements Serializable {
 				return generate(original, revised, changes, false);
 		}
 
-		private static <T> Chunk<T> buildChunk(int start, int end, List<? extends T> data) {
-				return new Chunk<>(start, new ArrayList<>(data.subList(start, end)));
+		private static <T> Chunk<T> buildChunk(int start, int end, List<? extends T> data, boolean referenceLines) {
+				if (referenceLines) {
+						return Chunk.referencing(start, data, start, end);
+				}
+				return Chunk.owning(start, new ArrayList<>(data.subList(start, end)), null);
 		}
 
 		public static <T> Patch<T> generate(
 						List<? extends T> original, List<? extends T> revised, List<Change> _changes, boolean includeEquals) {
+				return generate(original, revised, _changes, includeEquals, false);
+		}
+
+		/**
+		 * Creates the patch out of the computed changes.
+		 *
+		 * @param original the original text
+		 * @param revised the revised text
+		 * @param _changes the changes computed by a diff algorithm
+		 * @param includeEquals include equal data parts into the patch
+		 * @param referenceLines the chunks only reference the lines of original and revised instead of
+		 * copying them. This way a patch of large texts does not double the memory needed. Both lists must
+		 * not be modified as long as the patch is in use.
+		 * @return the patch
+		 */
+		public static <T> Patch<T> generate(
+						List<? extends T> original,
+						List<? extends T> revised,
+						List<Change> _changes,
+						boolean includeEquals,
+						boolean referenceLines) {
 				Patch<T> patch = new Patch<>(_changes.size());
 				int startOriginal = 0;
 				int startRevised = 0;
@@ -315,12 +385,12 @@ public final class Patch<T> implements Serializable {
 
 						if (includeEquals && startOriginal < change.startOriginal) {
 								patch.addDelta(new EqualDelta<T>(
-												buildChunk(startOriginal, change.startOriginal, original),
-												buildChunk(startRevised, change.startRevised, revised)));
+												buildChunk(startOriginal, change.startOriginal, original, referenceLines),
+												buildChunk(startRevised, change.startRevised, revised, referenceLines)));
 						}
 
-						Chunk<T> orgChunk = buildChunk(change.startOriginal, change.endOriginal, original);
-						Chunk<T> revChunk = buildChunk(change.startRevised, change.endRevised, revised);
+						Chunk<T> orgChunk = buildChunk(change.startOriginal, change.endOriginal, original, referenceLines);
+						Chunk<T> revChunk = buildChunk(change.startRevised, change.endRevised, revised, referenceLines);
 						switch (change.deltaType) {
 								case DELETE:
 										patch.addDelta(new DeleteDelta<>(orgChunk, revChunk));
@@ -340,10 +410,173 @@ public final class Patch<T> implements Serializable {
 
 				if (includeEquals && startOriginal < original.size()) {
 						patch.addDelta(new EqualDelta<T>(
-										buildChunk(startOriginal, original.size(), original),
-										buildChunk(startRevised, revised.size(), revised)));
+										buildChunk(startOriginal, original.size(), original, referenceLines),
+										buildChunk(startRevised, revised.size(), revised, referenceLines)));
 				}
 
 				return patch;
 		}
+
+		/**
+		 * Composes two consecutive patches. If {@code first} transforms a text A into B and
+		 * {@code second} transforms B into C, the resulting patch transforms A into C directly.
+		 * <p>
+		 * The deltas are merged by offset arithmetic only, B is never materialized. Therefore the
+		 * effort is linear in the number of deltas and their lines and not in the size of the texts.
+		 * Inserts that are deleted again cancel out, overlapping or adjacent changes are collapsed into
+		 * one delta and lines that end up unchanged are trimmed away. {@link EqualDelta}s are ignored.
+		 *
+		 * @param first the patch from A to B
+		 * @param second the patch from B to C
+		 * @return the patch from A to C
+		 */
+		public static <T> Patch<T> compose(Patch<T> first, Patch<T> second) {
+				Objects.requireNonNull(first, "first must not be null");
+				Objects.requireNonNull(second, "second must not be null");
+				List<AbstractDelta<T>> firstDeltas = withoutEqualities(first.getDeltas());
+				List<AbstractDelta<T>> secondDeltas = withoutEqualities(second.getDeltas());
+				Patch<T> patch = new Patch<>(firstDeltas.size() + secondDeltas.size());
+
+				// all positions are counted within B, the offsets map them to A resp. C
+				int firstOffset = 0;
+				int secondOffset = 0;
+				int i = 0;
+				int j = 0;
+				while (i < firstDeltas.size() || j < secondDeltas.size()) {
+						int start;
+						if (j == secondDeltas.size()
+										|| (i < firstDeltas.size()
+														&& firstDeltas.get(i).getTarget().getPosition()
+																		<= secondDeltas.get(j).getSource().getPosition())) {
+								start = firstDeltas.get(i).getTarget().getPosition();
+						} else {
+								start = secondDeltas.get(j).getSource().getPosition();
+						}
+
+						// collect all deltas of both patches touching the region [start, end) of B
+						int firstFrom = i;
+						int secondFrom = j;
+						int end = start;
+						boolean grown = true;
+						while (grown) {
+								grown = false;
+								while (i < firstDeltas.size() && firstDeltas.get(i).getTarget().getPosition() <= end) {
+										end = Math.max(end, firstDeltas.get(i).getTarget().last() + 1);
+										i++;
+										grown = true;
+								}
+								while (j < secondDeltas.size()
+												&& secondDeltas.get(j).getSource().getPosition() <= end) {
+										end = Math.max(end, secondDeltas.get(j).getSource().last() + 1);
+										j++;
+										grown = true;
+								}
+						}
+
+						// lines of A: sources of the first patch, the gaps are unchanged lines of B
+						List<T> originalLines = new ArrayList<>();
+						int cursor = secondFrom;
+						int pos = start;
+						int firstDiff = 0;
+						for (int k = firstFrom; k < i; k++) {
+								AbstractDelta<T> delta = firstDeltas.get(k);
+								cursor = copyLinesOfB(
+												secondDeltas, cursor, j, false, pos, delta.getTarget().getPosition(), originalLines);
+								originalLines.addAll(delta.getSource().getLines());
+								pos = delta.getTarget().last() + 1;
+								firstDiff += delta.getTarget().size() - delta.getSource().size();
+						}
+						copyLinesOfB(secondDeltas, cursor, j, false, pos, end, originalLines);
+
+						// lines of C: targets of the second patch, the gaps are unchanged lines of B
+						List<T> revisedLines = new ArrayList<>();
+						cursor = firstFrom;
+						pos = start;
+						int secondDiff = 0;
+						for (int k = secondFrom; k < j; k++) {
+								AbstractDelta<T> delta = secondDeltas.get(k);
+								cursor = copyLinesOfB(
+												firstDeltas, cursor, i, true, pos, delta.getSource().getPosition(), revisedLines);
+								revisedLines.addAll(delta.getTarget().getLines());
+								pos = delta.getSource().last() + 1;
+								secondDiff += delta.getTarget().size() - delta.getSource().size();
+						}
+						copyLinesOfB(firstDeltas, cursor, i, true, pos, end, revisedLines);
+
+						addComposedDelta(patch, start - firstOffset, originalLines, start + secondOffset, revisedLines);
+
+						firstOffset += firstDiff;
+						secondOffset += secondDiff;
+				}
+				return patch;
+		}
+
+		private static <T> List<AbstractDelta<T>> withoutEqualities(List<AbstractDelta<T>> deltas) {
+				List<AbstractDelta<T>> result = new ArrayList<>(deltas.size());
+				for (AbstractDelta<T> delta : deltas) {
+						if (delta.getType() != DeltaType.EQUAL) {
+								result.add(delta);
+						}
+				}
+				return result;
+		}
+
+		/**
+		 * Copies the lines [from, to) of B out of the B side of the given deltas, which have to cover
+		 * this range completely. The deltas are visited from index cursor on, the index of the delta
+		 * holding the last copied line is returned to continue from there.
+		 */
+		private static <T> int copyLinesOfB(
+						List<AbstractDelta<T>> deltas, int cursor, int limit, boolean bIsTarget, int from, int to, List<T> out) {
+				int idx = cursor;
+				for (int line = from; line < to; line++) {
+						Chunk<T> chunk;
+						while (true) {
+								if (idx >= limit) {
+										throw new IllegalArgumentException("second patch does not fit to the result of the first patch");
+								}
+								chunk = bIsTarget
+												? deltas.get(idx).getTarget()
+												: deltas.get(idx).getSource();
+								if (line <= chunk.last()) {
+										break;
+								}
+								idx++;
+						}
+						out.add(chunk.getLines().get(line - chunk.getPosition()));
+				}
+				return idx;
+		}
+
+		private static <T> void addComposedDelta(
+						Patch<T> patch, int originalPosition, List<T> originalLines, int revisedPosition, List<T> revisedLines) {
+				int originalEnd = originalLines.size();
+				int revisedEnd = revisedLines.size();
+				int prefix = 0;
+				while (prefix < originalEnd
+								&& prefix < revisedEnd
+								&& Objects.equals(originalLines.get(prefix), revisedLines.get(prefix))) {
+						prefix++;
+				}
+				while (originalEnd > prefix
+								&& revisedEnd > prefix
+								&& Objects.equals(originalLines.get(originalEnd - 1), revisedLines.get(revisedEnd - 1))) {
+						originalEnd--;
+						revisedEnd--;
+				}
+
+				Chunk<T> orgChunk = new Chunk<>(originalPosition + prefix, originalLines.subList(prefix, originalEnd));
+				Chunk<T> revChunk = new Chunk<>(revisedPosition + prefix, revisedLines.subList(prefix, revisedEnd));
+				if (orgChunk.size() == 0 && revChunk.size() == 0) {
+						// an insert, that was deleted again
+						return;
+				}
+				if (orgChunk.size() == 0) {
+						patch.addDelta(new InsertDelta<>(orgChunk, revChunk));
+				} else if (revChunk.size() == 0) {
+						patch.addDelta(new DeleteDelta<>(orgChunk, revChunk));
+				} else {
+						patch.addDelta(new ChangeDelta<>(orgChunk, revChunk));
+				}
+		}
 }
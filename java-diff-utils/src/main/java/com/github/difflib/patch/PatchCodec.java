@@ -0,0 +1,323 @@
+/*
+ * Copyright 2026 java-diff-utils.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.difflib.patch;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.BufferedOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Compact, versioned binary format for text patches. In contrast to the default Java
+ * serialization this format is stable and can be persisted.
+ *
+ * <p>
+ * Layout: the magic bytes {@code JDP}, a version byte, a flags byte and the number of deltas.
+ * Each delta consists of its type followed by its source and target chunk. A chunk is
+ * written as position, number of lines, the lines and the change positions. All numbers are
+ * written as unsigned varints, lines as UTF-8. With the dictionary flag each line, that
+ * already occurred, is written as a reference to its first occurrence.
+ * </p>
+ *
+ * <p>
+ * The lines are streamed while writing, the patch is not buffered as a whole. Reading is
+ * done byte by byte, so a buffered stream should be provided. Exactly the bytes of one patch are
+ * consumed, so multiple patches can be read from one stream.
+ * </p>
+ */
+public final class PatchCodec {
+
+		private static final byte[] MAGIC = {'J', 'D', 'P'};
+		private static final int VERSION = 1;
+		private static final int FLAG_DICTIONARY = 1;
+
+		private static final int TYPE_CHANGE = 0;
+		private static final int TYPE_DELETE = 1;
+		private static final int TYPE_INSERT = 2;
+		private static final int TYPE_EQUAL = 3;
+
+		// the sizes read are not trusted, larger lists and arrays grow while they are read
+		private static final int MAX_INITIAL_CAPACITY = 1024;
+		private static final int READ_BUFFER_SIZE = 8192;
+
+		/**
+		 * Writes the patch without a line dictionary.
+		 *
+		 * @param patch the patch to write
+		 * @param out the target stream, it is flushed but not closed
+		 * @throws IOException
+		 */
+		public static void write(Patch<String> patch, OutputStream out) throws IOException {
+				write(patch, out, false);
+		}
+
+		/**
+		 * Writes the patch.
+		 *
+		 * @param patch the patch to write
+		 * @param out the target stream, it is flushed but not closed
+		 * @param useDictionary write repeated lines as references to their first occurrence
+		 * @throws IOException
+		 */
+		public static void write(Patch<String> patch, OutputStream out, boolean useDictionary) throws IOException {
+				Objects.requireNonNull(patch, "patch must not be null");
+				Objects.requireNonNull(out, "out must not be null");
+				OutputStream buffered = new BufferedOutputStream(out);
+				buffered.write(MAGIC);
+				buffered.write(VERSION);
+				buffered.write(useDictionary ? FLAG_DICTIONARY : 0);
+
+				Map<String, Integer> dictionary = useDictionary ? new HashMap<>() : null;
+				List<AbstractDelta<String>> deltas = patch.getDeltas();
+				writeVarint(buffered, deltas.size());
+				for (AbstractDelta<String> delta : deltas) {
+						buffered.write(typeCode(delta.getType()));
+						writeChunk(buffered, delta.getSource(), dictionary);
+						writeChunk(buffered, delta.getTarget(), dictionary);
+				}
+				buffered.flush();
+		}
+
+		/**
+		 * Reads one patch.
+		 *
+		 * @param in the source stream
+		 * @return the patch
+		 * @throws IOException if the stream ends too early, is corrupt or does not contain a patch of
+		 * a supported version
+		 */
+		public static Patch<String> read(InputStream in) throws IOException {
+				Objects.requireNonNull(in, "in must not be null");
+				for (byte magic : MAGIC) {
+						if (readByte(in) != magic) {
+								throw new IOException("stream does not contain a patch");
+						}
+				}
+				int version = readByte(in);
+				if (version != VERSION) {
+						throw new IOException("unsupported patch format version " + version);
+				}
+				int flags = readByte(in);
+
+				List<String> dictionary = (flags & FLAG_DICTIONARY) != 0 ? new ArrayList<>() : null;
+				int size = readCount(in, "delta count");
+				Patch<String> patch = new Patch<>(Math.min(size, MAX_INITIAL_CAPACITY));
+				for (int i = 0; i < size; i++) {
+						int type = readByte(in);
+						Chunk<String> source = readChunk(in, dictionary);
+						Chunk<String> target = readChunk(in, dictionary);
+						patch.addDelta(createDelta(type, source, target));
+				}
+				return patch;
+		}
+
+		private static void writeChunk(OutputStream out, Chunk<String> chunk, Map<String, Integer> dictionary)
+						throws IOException {
+				writeVarint(out, chunk.getPosition());
+				List<String> lines = chunk.getLines();
+				writeVarint(out, lines.size());
+				for (String line : lines) {
+						writeLine(out, line, dictionary);
+				}
+
+				int[] changePosition = chunk.changePositions();
+				if (changePosition == null) {
+						writeVarint(out, 0);
+				} else {
+						writeVarint(out, changePosition.length + 1);
+						int last = chunk.getPosition();
+						for (int position : changePosition) {
+								writeSignedVarint(out, position - last);
+								last = position;
+						}
+				}
+		}
+
+		private static Chunk<String> readChunk(InputStream in, List<String> dictionary) throws IOException {
+				int position = readCount(in, "chunk position");
+				int size = readCount(in, "line count");
+				List<String> lines = new ArrayList<>(Math.min(size, MAX_INITIAL_CAPACITY));
+				for (int i = 0; i < size; i++) {
+						lines.add(readLine(in, dictionary));
+				}
+
+				int[] changePosition = null;
+				int count = readCount(in, "change position count") - 1;
+				if (count >= 0) {
+						changePosition = new int[Math.min(count, MAX_INITIAL_CAPACITY)];
+						int last = position;
+						for (int i = 0; i < count; i++) {
+								last += readSignedVarint(in);
+								if (i == changePosition.length) {
+										changePosition = Arrays.copyOf(changePosition, (int) Math.min(count, 2L * i));
+								}
+								changePosition[i] = last;
+						}
+				}
+				return Chunk.owning(position, lines, changePosition);
+		}
+
+		/**
+		 * Lines are written as (length + 1) and the UTF-8 bytes, 0 stands for null. Using the dictionary
+		 * 0 is null, 1 a literal line and (n + 2) a reference to the n-th distinct line.
+		 */
+		private static void writeLine(OutputStream out, String line, Map<String, Integer> dictionary) throws IOException {
+				if (line == null) {
+						writeVarint(out, 0);
+						return;
+				}
+				if (dictionary != null) {
+						Integer ref = dictionary.get(line);
+						if (ref != null) {
+								writeVarint(out, ref + 2);
+								return;
+						}
+						dictionary.put(line, dictionary.size());
+						writeVarint(out, 1);
+				}
+				byte[] bytes = line.getBytes(UTF_8);
+				writeVarint(out, dictionary != null ? bytes.length : bytes.length + 1);
+				out.write(bytes);
+		}
+
+		private static String readLine(InputStream in, List<String> dictionary) throws IOException {
+				int code = readCount(in, "line code");
+				if (code == 0) {
+						return null;
+				}
+				int length;
+				if (dictionary != null) {
+						if (code > 1) {
+								int ref = code - 2;
+								if (ref >= dictionary.size()) {
+										throw new IOException("invalid line reference " + ref);
+								}
+								return dictionary.get(ref);
+						}
+						length = readCount(in, "line length");
+				} else {
+						length = code - 1;
+				}
+				byte[] bytes = new byte[Math.min(length, READ_BUFFER_SIZE)];
+				int read = 0;
+				while (read < length) {
+						if (read == bytes.length) {
+								bytes = Arrays.copyOf(bytes, (int) Math.min(length, 2L * read));
+						}
+						int count = in.read(bytes, read, Math.min(length, bytes.length) - read);
+						if (count < 0) {
+								throw new EOFException();
+						}
+						read += count;
+				}
+				String line = new String(bytes, 0, length, UTF_8);
+				if (dictionary != null) {
+						dictionary.add(line);
+				}
+				return line;
+		}
+
+		private static int typeCode(DeltaType type) {
+				switch (type) {
+						case CHANGE:
+								return TYPE_CHANGE;
+						case DELETE:
+								return TYPE_DELETE;
+						case INSERT:
+								return TYPE_INSERT;
+						case EQUAL:
+								return TYPE_EQUAL;
+						default:
+								throw new IllegalArgumentException("unknown delta type " + type);
+				}
+		}
+
+		private static AbstractDelta<String> createDelta(int type, Chunk<String> source, Chunk<String> target)
+						throws IOException {
+				switch (type) {
+						case TYPE_CHANGE:
+								return new ChangeDelta<>(source, target);
+						case TYPE_DELETE:
+								return new DeleteDelta<>(source, target);
+						case TYPE_INSERT:
+								return new InsertDelta<>(source, target);
+						case TYPE_EQUAL:
+								return new EqualDelta<>(source, target);
+						default:
+								throw new IOException("unknown delta type " + type);
+				}
+		}
+
+		private static void writeVarint(OutputStream out, int value) throws IOException {
+				int v = value;
+				while ((v & ~0x7F) != 0) {
+						out.write((v & 0x7F) | 0x80);
+						v >>>= 7;
+				}
+				out.write(v);
+		}
+
+		private static void writeSignedVarint(OutputStream out, int value) throws IOException {
+				writeVarint(out, (value << 1) ^ (value >> 31));
+		}
+
+		private static int readVarint(InputStream in) throws IOException {
+				int value = 0;
+				for (int shift = 0; shift < 35; shift += 7) {
+						int b = readByte(in);
+						value |= (b & 0x7F) << shift;
+						if ((b & 0x80) == 0) {
+								return value;
+						}
+				}
+				throw new IOException("malformed varint");
+		}
+
+		/**
+		 * @return a varint that has to be a size or position
+		 */
+		private static int readCount(InputStream in, String name) throws IOException {
+				int value = readVarint(in);
+				if (value < 0) {
+						throw new IOException("invalid " + name + " " + (value & 0xFFFFFFFFL));
+				}
+				return value;
+		}
+
+		private static int readSignedVarint(InputStream in) throws IOException {
+				int value = readVarint(in);
+				return (value >>> 1) ^ -(value & 1);
+		}
+
+		private static int readByte(InputStream in) throws IOException {
+				int b = in.read();
+				if (b < 0) {
+						throw new EOFException();
+				}
+				return b;
+		}
+
+		private PatchCodec() {}
+}
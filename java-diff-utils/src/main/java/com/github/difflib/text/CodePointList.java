@@ -0,0 +1,76 @@
+/*
+ * Copyright 2026 java-diff-utils.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.difflib.text;
+
+import java.util.AbstractList;
+import java.util.RandomAccess;
+
+/**
+ * The code points of a text as a list of strings. The code points are kept in
+ * an int array for the diff and the strings are only cut out of the text when
+ * requested, so no object is allocated per character.
+ */
+final class CodePointList extends AbstractList<String> implements RandomAccess {
+
+		private final String text;
+		private final int[] codePoints;
+		// the character offset of each code point and the text length, null if each code point is a single character
+		private final int[] offsets;
+
+		CodePointList(String text) {
+				this.text = text;
+				this.codePoints = text.codePoints().toArray();
+				if (text.length() == codePoints.length) {
+						offsets = null;
+				} else {
+						offsets = new int[codePoints.length + 1];
+						for (int i = 0; i < codePoints.length; i++) {
+								offsets[i + 1] = offsets[i] + Character.charCount(codePoints[i]);
+						}
+				}
+		}
+
+		int[] codePoints() {
+				return codePoints;
+		}
+
+		/**
+		 * @return the character offset of the code point at the given index
+		 */
+		int offset(int index) {
+				if (index < 0 || index > codePoints.length) {
+						throw new IndexOutOfBoundsException("index " + index + ", size " + codePoints.length);
+				}
+				return offsets == null ? index : offsets[index];
+		}
+
+		/**
+		 * @return the text of the code points from start to end
+		 */
+		String join(int start, int end) {
+				return text.substring(offset(start), offset(end));
+		}
+
+		@Override
+		public String get(int index) {
+				return join(index, index + 1);
+		}
+
+		@Override
+		public int size() {
+				return codePoints.length;
+		}
+}
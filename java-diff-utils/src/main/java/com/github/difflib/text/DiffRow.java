@@ -28,18 +28,43 @@ public final class DiffRow implements Serializable {
 		private Tag tag;
 		private final String oldLine;
 		private final String newLine;
+		private final int skippedLines;
+		private final boolean inlineDiffFallback;
 
 		public DiffRow(Tag tag, String oldLine, String newLine) {
+				this(tag, oldLine, newLine, 0, false);
+		}
+
+		private DiffRow(Tag tag, String oldLine, String newLine, int skippedLines, boolean inlineDiffFallback) {
 				this.tag = tag;
 				this.oldLine = oldLine;
 				this.newLine = newLine;
+				this.skippedLines = skippedLines;
+				this.inlineDiffFallback = inlineDiffFallback;
+		}
+
+		/**
+		 * @param skippedLines the number of unchanged lines the row stands for
+		 * @return a placeholder row for unchanged lines left out of the result
+		 */
+		public static DiffRow skip(int skippedLines) {
+				return new DiffRow(Tag.SKIP, "", "", skippedLines, false);
+		}
+
+		DiffRow withInlineDiffFallback() {
+				return new DiffRow(tag, oldLine, newLine, skippedLines, true);
 		}
 
 		public enum Tag {
 				INSERT,
 				DELETE,
 				CHANGE,
-				EQUAL
+				EQUAL,
+				/**
+				 * Placeholder for unchanged lines that are not reported, see
+				 * {@link DiffRow#getSkippedLines()}.
+				 */
+				SKIP
 		}
 
 		/**
@@ -70,9 +95,25 @@ public final class DiffRow implements Serializable {
 				return newLine;
 		}
 
+		/**
+		 * @return the number of unchanged lines a {@link Tag#SKIP} row stands for, 0
+		 * for all other rows
+		 */
+		public int getSkippedLines() {
+				return skippedLines;
+		}
+
+		/**
+		 * @return true if the inline diff of the row was computed by words or left
+		 * out because it exceeded the configured budgets
+		 */
+		public boolean isInlineDiffFallback() {
+				return inlineDiffFallback;
+		}
+
 		@Override
 		public int hashCode() {
-				return Objects.hash(newLine, oldLine, tag);
+				return Objects.hash(newLine, oldLine, tag, skippedLines, inlineDiffFallback);
 		}
 
 		@Override
@@ -108,11 +149,14 @@ public final class DiffRow implements Serializable {
 				} else if (!tag.equals(other.tag)) {
 						return false;
 				}
-				return true;
+				return skippedLines == other.skippedLines && inlineDiffFallback == other.inlineDiffFallback;
 		}
 
 		@Override
 		public String toString() {
+				if (tag == Tag.SKIP) {
+						return "[" + this.tag + "," + skippedLines + "]";
+				}
 				return "[" + this.tag + "," + this.oldLine + "," + this.newLine + "]";
 		}
 }
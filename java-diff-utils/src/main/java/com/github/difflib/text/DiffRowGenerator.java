@@ -18,6 +18,7 @@ package com.github.difflib.text;
 import static java.util.stream.Collectors.toList;
 
 import com.github.difflib.DiffUtils;
+import com.github.difflib.algorithm.DiffAlgorithmListener;
 import com.github.difflib.patch.AbstractDelta;
 import com.github.difflib.patch.ChangeDelta;
 import com.github.difflib.patch.Chunk;
@@ -29,11 +30,17 @@ import com.github.difflib.text.DiffRow.Tag;
 import com.github.difflib.text.deltamerge.DeltaMergeUtils;
 import com.github.difflib.text.deltamerge.InlineDeltaMergeInfo;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.BiFunction;
 import java.util.function.BiPredicate;
 import java.util.function.Function;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * This class for generating DiffRows for side-by-sidy view. You can customize
@@ -60,15 +67,11 @@ public final class DiffRowGenerator {
 		public static final Function<String, String> LINE_NORMALIZER_FOR_HTML = StringUtils::normalize;
 
 		/**
-		 * Splitting lines by character to achieve char by char diff checking.
+		 * Splitting lines by character to achieve char by char diff checking. A
+		 * surrogate pair stays together as one element.
 		 */
-		public static final Function<String, List<String>> SPLITTER_BY_CHARACTER = line -> {
-				List<String> list = new ArrayList<>(line.length());
-				for (Character character : line.toCharArray()) {
-						list.add(character.toString());
-				}
-				return list;
-		};
+		public static final Function<String, List<String>> SPLITTER_BY_CHARACTER =
+						line -> new ArrayList<>(new CodePointList(line));
 
 		public static final Pattern SPLIT_BY_WORD_PATTERN = Pattern.compile("\\s+|[,.\\[\\](){}/\\\\*+\\-#<>;:&\\']+");
 
@@ -117,67 +120,6 @@ public final class DiffRowGenerator {
 				return list;
 		}
 
-		/**
-		 * Wrap the elements in the sequence with the given tag
-		 *
-		 * @param startPosition the position from which tag should start. The
-		 * counting start from a zero.
-		 * @param endPosition the position before which tag should should be closed.
-		 * @param tagGenerator the tag generator
-		 */
-		static void wrapInTag(
-						List<String> sequence,
-						int startPosition,
-						int endPosition,
-						Tag tag,
-						BiFunction<Tag, Boolean, String> tagGenerator,
-						Function<String, String> processDiffs,
-						boolean replaceLinefeedWithSpace) {
-				int endPos = endPosition;
-
-				while (endPos >= startPosition) {
-
-						// search position for end tag
-						while (endPos > startPosition) {
-								if (!"\n".equals(sequence.get(endPos - 1))) {
-										break;
-								} else if (replaceLinefeedWithSpace) {
-										sequence.set(endPos - 1, " ");
-										break;
-								}
-								endPos--;
-						}
-
-						if (endPos == startPosition) {
-								break;
-						}
-
-						sequence.add(endPos, tagGenerator.apply(tag, false));
-						if (processDiffs != null) {
-								sequence.set(endPos - 1, processDiffs.apply(sequence.get(endPos - 1)));
-						}
-						endPos--;
-
-						// search position for end tag
-						while (endPos > startPosition) {
-								if ("\n".equals(sequence.get(endPos - 1))) {
-										if (replaceLinefeedWithSpace) {
-												sequence.set(endPos - 1, " ");
-										} else {
-												break;
-										}
-								}
-								if (processDiffs != null) {
-										sequence.set(endPos - 1, processDiffs.apply(sequence.get(endPos - 1)));
-								}
-								endPos--;
-						}
-
-						sequence.add(endPos, tagGenerator.apply(tag, true));
-						endPos--;
-				}
-		}
-
 		private final int columnWidth;
 		private final BiPredicate<String, String> equalizer;
 		private final boolean ignoreWhiteSpaces;
@@ -195,6 +137,14 @@ public final class DiffRowGenerator {
 		private final boolean showInlineDiffs;
 		private final boolean replaceOriginalLinefeedInChangesWithSpaces;
 		private final boolean decompressDeltas;
+		private final int contextLines;
+		private final Executor executor;
+		private final int maxInlineDiffSize;
+		private final int maxInlineDiffSteps;
+		// inline diffs by their normalized lines, null if disabled
+		private final Map<LinePair, InlineDiff> inlineDiffCache;
+		private final AtomicLong inlineDiffCacheHits = new AtomicLong();
+		private final AtomicLong inlineDiffCacheMisses = new AtomicLong();
 
 		private DiffRowGenerator(Builder builder) {
 				showInlineDiffs = builder.showInlineDiffs;
@@ -205,6 +155,21 @@ public final class DiffRowGenerator {
 				mergeOriginalRevised = builder.mergeOriginalRevised;
 				inlineDiffSplitter = builder.inlineDiffSplitter;
 				decompressDeltas = builder.decompressDeltas;
+				contextLines = builder.contextLines;
+				executor = builder.executor;
+				maxInlineDiffSize = builder.maxInlineDiffSize;
+				maxInlineDiffSteps = builder.maxInlineDiffSteps;
+				int cacheSize = builder.inlineDiffCacheSize;
+				inlineDiffCache = cacheSize <= 0
+								? null
+								: new LinkedHashMap<LinePair, InlineDiff>(16, 0.75f, true) {
+										private static final long serialVersionUID = 1L;
+
+										@Override
+										protected boolean removeEldestEntry(Map.Entry<LinePair, InlineDiff> eldest) {
+												return size() > cacheSize;
+										}
+								};
 
 				if (builder.equalizer != null) {
 						equalizer = builder.equalizer;
@@ -248,42 +213,330 @@ public final class DiffRowGenerator {
 		 */
 		public List<DiffRow> generateDiffRows(final List<String> original, Patch<String> patch) {
 				List<DiffRow> diffRows = new ArrayList<>();
-				int endPos = 0;
-				final List<AbstractDelta<String>> deltaList = patch.getDeltas();
-
-				if (decompressDeltas) {
-						for (AbstractDelta<String> originalDelta : deltaList) {
-								for (AbstractDelta<String> delta : decompressDeltas(originalDelta)) {
-										endPos = transformDeltaIntoDiffRow(original, endPos, diffRows, delta);
+				if (executor != null && showInlineDiffs) {
+						List<AbstractDelta<String>> deltas = new ArrayList<>();
+						Map<AbstractDelta<String>, CompletableFuture<List<DiffRow>>> inlineDiffs = new IdentityHashMap<>();
+						for (AbstractDelta<String> patchDelta : patch.getDeltas()) {
+								for (AbstractDelta<String> delta : rowDeltas(patchDelta)) {
+										deltas.add(delta);
+										if (delta.getType() != DeltaType.INSERT && delta.getType() != DeltaType.DELETE) {
+												inlineDiffs.put(delta, CompletableFuture.supplyAsync(() -> deltaDiffRows(delta), executor));
+										}
 								}
 						}
+						new DiffRowIterator(original, deltas.iterator(), inlineDiffs).forEachRemaining(diffRows::add);
 				} else {
-						for (AbstractDelta<String> delta : deltaList) {
-								endPos = transformDeltaIntoDiffRow(original, endPos, diffRows, delta);
+						new DiffRowIterator(original, rowDeltas(patch), null).forEachRemaining(diffRows::add);
+				}
+				return diffRows;
+		}
+
+		private Iterator<AbstractDelta<String>> rowDeltas(Patch<String> patch) {
+				return patch.getDeltas().stream()
+								.flatMap(delta -> rowDeltas(delta).stream())
+								.iterator();
+		}
+
+		/**
+		 * Streams the DiffRows describing the difference between original and
+		 * revised texts using the given patch. The rows are generated lazily while
+		 * the stream is consumed, so only the rows of one delta are held at a time.
+		 *
+		 * @param original the original text
+		 * @param patch the given patch
+		 * @return the DiffRows between original and revised texts in order
+		 */
+		public Stream<DiffRow> streamDiffRows(List<String> original, Patch<String> patch) {
+				return StreamSupport.stream(
+								Spliterators.spliteratorUnknownSize(
+												new DiffRowIterator(original, rowDeltas(patch), null),
+												Spliterator.ORDERED | Spliterator.NONNULL),
+								false);
+		}
+
+		/**
+		 * Walks the deltas of a patch and generates the rows of each unchanged run
+		 * and delta when they are needed.
+		 */
+		private final class DiffRowIterator implements Iterator<DiffRow> {
+				private final List<String> original;
+				private final Iterator<AbstractDelta<String>> deltas;
+				// rows of deltas computed in advance, may be null
+				private final Map<AbstractDelta<String>, CompletableFuture<List<DiffRow>>> precomputed;
+				// the delta following the current unchanged run
+				private AbstractDelta<String> nextDelta;
+				private Iterator<DiffRow> deltaRows = Collections.emptyIterator();
+				private int endPos;
+				private boolean afterDelta;
+				private boolean done;
+				// state of the current unchanged run
+				private int equalFrom;
+				private int equalTo;
+				private int skipped;
+				private int tailFrom;
+				private int tailTo;
+
+				DiffRowIterator(
+								List<String> original,
+								Iterator<AbstractDelta<String>> deltas,
+								Map<AbstractDelta<String>, CompletableFuture<List<DiffRow>>> precomputed) {
+						this.original = original;
+						this.deltas = deltas;
+						this.precomputed = precomputed;
+				}
+
+				@Override
+				public boolean hasNext() {
+						while (equalFrom == equalTo && skipped == 0 && !deltaRows.hasNext()) {
+								if (nextDelta != null) {
+										deltaRows = rowsOf(nextDelta).iterator();
+										endPos = nextDelta.getSource().getPosition()
+														+ nextDelta.getSource().size();
+										afterDelta = true;
+										nextDelta = null;
+								} else if (done) {
+										return false;
+								} else {
+										if (deltas.hasNext()) {
+												nextDelta = deltas.next();
+												startEqualRun(nextDelta.getSource().getPosition(), true);
+										} else {
+												startEqualRun(original.size(), false);
+												done = true;
+										}
+								}
+						}
+						return true;
+				}
+
+				private List<DiffRow> rowsOf(AbstractDelta<String> delta) {
+						CompletableFuture<List<DiffRow>> rows = precomputed == null ? null : precomputed.get(delta);
+						if (rows == null) {
+								return deltaDiffRows(delta);
+						}
+						try {
+								return rows.join();
+						} catch (CompletionException e) {
+								if (e.getCause() instanceof RuntimeException) {
+										throw (RuntimeException) e.getCause();
+								}
+								throw e;
+						}
+				}
+
+				private void startEqualRun(int end, boolean beforeDelta) {
+						int head = contextHead(end - endPos, afterDelta);
+						int tail = contextTail(end - endPos, head, beforeDelta);
+						equalFrom = endPos;
+						equalTo = endPos + head;
+						skipped = end - endPos - head - tail;
+						tailFrom = end - tail;
+						tailTo = end;
+						if (skipped == 0) {
+								equalTo = tailTo;
+						}
+				}
+
+				@Override
+				public DiffRow next() {
+						if (!hasNext()) {
+								throw new NoSuchElementException();
+						}
+						if (equalFrom < equalTo) {
+								return equalDiffRow(original.get(equalFrom++));
+						}
+						if (skipped > 0) {
+								DiffRow skip = DiffRow.skip(skipped);
+								skipped = 0;
+								equalFrom = tailFrom;
+								equalTo = tailTo;
+								return skip;
 						}
+						return deltaRows.next();
 				}
+		}
 
-				// Copy the final matching chunk if any.
-				for (String line : original.subList(endPos, original.size())) {
-						String processed = processEqualities(line);
-						diffRows.add(buildDiffRow(Tag.EQUAL, processed, processed));
+		/**
+		 * @return the number of rows shown at the start of a run of unchanged lines
+		 */
+		int contextHead(int lines, boolean afterDelta) {
+				if (contextLines < 0) {
+						return lines;
+				}
+				return afterDelta ? Math.min(contextLines, lines) : 0;
+		}
+
+		/**
+		 * @return the number of rows shown at the end of a run of unchanged lines
+		 */
+		int contextTail(int lines, int head, boolean beforeDelta) {
+				if (contextLines < 0) {
+						return 0;
 				}
+				return beforeDelta ? Math.min(contextLines, lines - head) : 0;
+		}
+
+		DiffRow equalDiffRow(String line) {
+				String processed = processEqualities(line);
+				return buildDiffRow(Tag.EQUAL, processed, processed);
+		}
+
+		/**
+		 * @return the rows of a delta as generateDiffRows creates them
+		 */
+		List<DiffRow> deltaDiffRows(AbstractDelta<String> delta) {
+				List<DiffRow> diffRows = new ArrayList<>();
+				transformDeltaIntoDiffRow(diffRows, delta);
 				return diffRows;
 		}
 
+		/**
+		 * Creates a model giving random access to the DiffRows between original and
+		 * revised texts. Rows are only generated when they are requested.
+		 *
+		 * @param original the original text
+		 * @param patch the given patch
+		 * @return the model of the DiffRows
+		 * @see DiffRowModel
+		 */
+		public DiffRowModel generateDiffRowModel(List<String> original, Patch<String> patch) {
+				return new DiffRowModel(this, original, patch, DiffRowModel.DEFAULT_CACHE_SIZE);
+		}
+
+		/**
+		 * Creates a model giving random access to the DiffRows between original and
+		 * revised texts, which keeps up to cacheSize generated rows.
+		 *
+		 * @param original the original text
+		 * @param patch the given patch
+		 * @param cacheSize the maximum number of generated rows to keep
+		 * @return the model of the DiffRows
+		 */
+		public DiffRowModel generateDiffRowModel(List<String> original, Patch<String> patch, int cacheSize) {
+				return new DiffRowModel(this, original, patch, cacheSize);
+		}
+
+		/**
+		 * Get the InlineDiffRows describing the difference between original and
+		 * revised texts. Unlike DiffRows they carry the raw lines and the character
+		 * ranges of the inline changes instead of tagged text, so the tags, the line
+		 * normalizer and the column width are not applied. Inline changes are
+		 * computed for all changed lines, regardless of showInlineDiffs.
+		 *
+		 * @param original the original text
+		 * @param revised the revised text
+		 * @return the InlineDiffRows between original and revised texts
+		 */
+		public List<InlineDiffRow> generateInlineDiffRows(List<String> original, List<String> revised) {
+				return generateInlineDiffRows(original, DiffUtils.diff(original, revised, equalizer));
+		}
+
+		/**
+		 * Generates the InlineDiffRows describing the difference between original
+		 * and revised texts using the given patch.
+		 *
+		 * @param original the original text
+		 * @param patch the given patch
+		 * @return the InlineDiffRows between original and revised texts
+		 * @see #generateInlineDiffRows(List, List)
+		 */
+		public List<InlineDiffRow> generateInlineDiffRows(List<String> original, Patch<String> patch) {
+				List<InlineDiffRow> rows = new ArrayList<>();
+				int pos = 0;
+				for (AbstractDelta<String> patchDelta : patch.getDeltas()) {
+						for (AbstractDelta<String> delta : rowDeltas(patchDelta)) {
+								for (; pos < delta.getSource().getPosition(); pos++) {
+										rows.add(equalRow(original.get(pos)));
+								}
+								addInlineDiffRows(delta, true, rows);
+								pos = delta.getSource().getPosition() + delta.getSource().size();
+						}
+				}
+				for (; pos < original.size(); pos++) {
+						rows.add(equalRow(original.get(pos)));
+				}
+				return rows;
+		}
+
+		static InlineDiffRow equalRow(String line) {
+				return new InlineDiffRow(Tag.EQUAL, line, InlineDiffRow.NO_RANGES, line, InlineDiffRow.NO_RANGES);
+		}
+
+		/**
+		 * Adds the InlineDiffRows of one delta. Inserted and deleted lines are
+		 * covered by a single range.
+		 *
+		 * @param inline whether the inline changes of changed lines are computed
+		 */
+		void addInlineDiffRows(AbstractDelta<String> delta, boolean inline, List<InlineDiffRow> rows) {
+				List<String> orig = delta.getSource().getLines();
+				List<String> rev = delta.getTarget().getLines();
+				switch (delta.getType()) {
+						case EQUAL:
+								for (String line : orig) {
+										rows.add(equalRow(line));
+								}
+								break;
+						case INSERT:
+								for (String line : rev) {
+										rows.add(new InlineDiffRow(
+														Tag.INSERT, "", InlineDiffRow.NO_RANGES, line, wholeLineRange(line, Tag.INSERT)));
+								}
+								break;
+						case DELETE:
+								for (String line : orig) {
+										rows.add(new InlineDiffRow(
+														Tag.DELETE, line, wholeLineRange(line, Tag.DELETE), "", InlineDiffRow.NO_RANGES));
+								}
+								break;
+						default:
+								InlineRanges origRanges = null;
+								InlineRanges revRanges = null;
+								InlineDiff inlineDiff = inline ? inlineDiff(String.join("\n", orig), String.join("\n", rev)) : null;
+								if (inlineDiff != null) {
+										origRanges = new InlineRanges(orig, inlineDiff.origList);
+										revRanges = new InlineRanges(rev, inlineDiff.revList);
+										for (AbstractDelta<String> inlineDelta : inlineDiff.deltas) {
+												Tag tag;
+												if (inlineDelta.getType() == DeltaType.DELETE) {
+														tag = Tag.DELETE;
+												} else if (inlineDelta.getType() == DeltaType.INSERT) {
+														tag = Tag.INSERT;
+												} else if (inlineDelta.getType() == DeltaType.CHANGE) {
+														tag = Tag.CHANGE;
+												} else {
+														continue;
+												}
+												if (tag != Tag.INSERT) {
+														origRanges.add(inlineDelta.getSource(), tag);
+												}
+												if (tag != Tag.DELETE) {
+														revRanges.add(inlineDelta.getTarget(), tag);
+												}
+										}
+								}
+								for (int j = 0; j < Math.max(orig.size(), rev.size()); j++) {
+										rows.add(new InlineDiffRow(
+														Tag.CHANGE,
+														j < orig.size() ? orig.get(j) : "",
+														origRanges != null ? origRanges.line(j) : InlineDiffRow.NO_RANGES,
+														j < rev.size() ? rev.get(j) : "",
+														revRanges != null ? revRanges.line(j) : InlineDiffRow.NO_RANGES));
+								}
+				}
+		}
+
+		private static int[] wholeLineRange(String line, Tag tag) {
+				return line.isEmpty() ? InlineDiffRow.NO_RANGES : new int[] {0, line.length(), tag.ordinal()};
+		}
+
 		/**
 		 * Transforms one patch delta into a DiffRow object.
 		 */
-		private int transformDeltaIntoDiffRow(
-						final List<String> original, int endPos, List<DiffRow> diffRows, AbstractDelta<String> delta) {
+		private int transformDeltaIntoDiffRow(List<DiffRow> diffRows, AbstractDelta<String> delta) {
 				Chunk<String> orig = delta.getSource();
 				Chunk<String> rev = delta.getTarget();
 
-				for (String line : original.subList(endPos, orig.getPosition())) {
-						String processed = processEqualities(line);
-						diffRows.add(buildDiffRow(Tag.EQUAL, processed, processed));
-				}
-
 				switch (delta.getType()) {
 						case INSERT:
 								for (String line : rev.getLines()) {
@@ -351,6 +604,226 @@ public final class DiffRowGenerator {
 				return Collections.singletonList(delta);
 		}
 
+		/**
+		 * @return the deltas to render for the given delta, which are decompressed
+		 * if configured
+		 */
+		List<AbstractDelta<String>> rowDeltas(AbstractDelta<String> delta) {
+				return decompressDeltas ? decompressDeltas(delta) : Collections.singletonList(delta);
+		}
+
+		/**
+		 * Splits the joined lines of a change and computes their merged inline
+		 * deltas. If the configured splitter exceeds the budgets, the lines are
+		 * split into words instead.
+		 *
+		 * @return the inline diff or null if even the words exceed the budgets
+		 */
+		InlineDiff inlineDiff(String joinedOrig, String joinedRev) {
+				if (inlineDiffCache == null) {
+						return computeInlineDiff(joinedOrig, joinedRev);
+				}
+				LinePair key = new LinePair(joinedOrig, joinedRev);
+				InlineDiff inlineDiff;
+				synchronized (inlineDiffCache) {
+						inlineDiff = inlineDiffCache.get(key);
+				}
+				if (inlineDiff != null) {
+						inlineDiffCacheHits.incrementAndGet();
+				} else {
+						inlineDiffCacheMisses.incrementAndGet();
+						inlineDiff = computeInlineDiff(joinedOrig, joinedRev);
+						if (inlineDiff == null) {
+								inlineDiff = InlineDiff.OVER_BUDGET;
+						}
+						synchronized (inlineDiffCache) {
+								inlineDiffCache.put(key, inlineDiff);
+						}
+				}
+				return inlineDiff == InlineDiff.OVER_BUDGET ? null : inlineDiff;
+		}
+
+		private InlineDiff computeInlineDiff(String joinedOrig, String joinedRev) {
+				Function<String, List<String>> splitter = inlineDiffSplitter;
+				for (; ; ) {
+						List<String> origList = split(splitter, joinedOrig);
+						List<String> revList = split(splitter, joinedRev);
+						List<AbstractDelta<String>> deltas = inlineDeltas(origList, revList);
+						if (deltas != null) {
+								return new InlineDiff(origList, revList, deltas, splitter != inlineDiffSplitter);
+						}
+						if (splitter == SPLITTER_BY_WORD) {
+								return null;
+						}
+						splitter = SPLITTER_BY_WORD;
+				}
+		}
+
+		/**
+		 * Splitting by character with the default equalizer diffs the code points
+		 * directly, so they are only cut out of the text when they are rendered.
+		 * Any other equalizer compares the elements, which are therefore created
+		 * once.
+		 */
+		private List<String> split(Function<String, List<String>> splitter, String text) {
+				return splitter == SPLITTER_BY_CHARACTER && equalizer == DEFAULT_EQUALIZER
+								? new CodePointList(text)
+								: splitter.apply(text);
+		}
+
+		/**
+		 * @return the merged inline deltas or null if the budgets are exceeded
+		 */
+		private List<AbstractDelta<String>> inlineDeltas(List<String> origList, List<String> revList) {
+				if (origList.size() > maxInlineDiffSize || revList.size() > maxInlineDiffSize) {
+						return null;
+				}
+				DiffAlgorithmListener progress =
+								maxInlineDiffSteps == Integer.MAX_VALUE ? null : new StepBudget(maxInlineDiffSteps);
+				List<AbstractDelta<String>> originalInlineDeltas;
+				try {
+						if (equalizer == DEFAULT_EQUALIZER
+										&& origList instanceof CodePointList
+										&& revList instanceof CodePointList) {
+								// compare the code points, the chunks reference the lazy lists
+								originalInlineDeltas = Patch.<String>generate(
+																origList,
+																revList,
+																DiffUtils.diffCodePoints(
+																				((CodePointList) origList).codePoints(),
+																				((CodePointList) revList).codePoints(),
+																				progress),
+																false,
+																true)
+												.getDeltas();
+						} else {
+								originalInlineDeltas =
+												DiffUtils.diff(origList, revList, equalizer, progress).getDeltas();
+						}
+				} catch (StepBudget.Exceeded e) {
+						return null;
+				}
+				return inlineDeltaMerger.apply(new InlineDeltaMergeInfo(originalInlineDeltas, origList, revList));
+		}
+
+		/**
+		 * The split tokens of a change and their inline deltas.
+		 */
+		static final class InlineDiff {
+				// cached for changes exceeding the budgets
+				static final InlineDiff OVER_BUDGET = new InlineDiff(null, null, null, true);
+
+				final List<String> origList;
+				final List<String> revList;
+				final List<AbstractDelta<String>> deltas;
+				// whether the lines were split into words because of the budgets
+				final boolean fallback;
+
+				InlineDiff(List<String> origList, List<String> revList, List<AbstractDelta<String>> deltas, boolean fallback) {
+						this.origList = origList;
+						this.revList = revList;
+						this.deltas = deltas;
+						this.fallback = fallback;
+				}
+		}
+
+		/**
+		 * The normalized and joined lines of a change as cache key.
+		 */
+		private static final class LinePair {
+				private final String original;
+				private final String revised;
+				private final int hash;
+
+				LinePair(String original, String revised) {
+						this.original = original;
+						this.revised = revised;
+						this.hash = original.hashCode() * 31 + revised.hashCode();
+				}
+
+				@Override
+				public int hashCode() {
+						return hash;
+				}
+
+				@Override
+				public boolean equals(Object obj) {
+						if (!(obj instanceof LinePair)) {
+								return false;
+						}
+						LinePair other = (LinePair) obj;
+						return hash == other.hash && original.equals(other.original) && revised.equals(other.revised);
+				}
+		}
+
+		/**
+		 * @return the number of inline diffs taken from the cache
+		 * @see Builder#inlineDiffCacheSize(int)
+		 */
+		public long getInlineDiffCacheHits() {
+				return inlineDiffCacheHits.get();
+		}
+
+		/**
+		 * @return the number of inline diffs computed while the cache was enabled
+		 * @see Builder#inlineDiffCacheSize(int)
+		 */
+		public long getInlineDiffCacheMisses() {
+				return inlineDiffCacheMisses.get();
+		}
+
+		/**
+		 * Stops the diff algorithm once it reports more steps than allowed.
+		 */
+		private static final class StepBudget implements DiffAlgorithmListener {
+				private final int maxSteps;
+
+				StepBudget(int maxSteps) {
+						this.maxSteps = maxSteps;
+				}
+
+				@Override
+				public void diffStart() {}
+
+				@Override
+				public void diffStep(int value, int max) {
+						if (value > maxSteps) {
+								throw new Exceeded();
+						}
+				}
+
+				@Override
+				public void diffEnd() {}
+
+				private static final class Exceeded extends RuntimeException {
+						private static final long serialVersionUID = 1L;
+
+						Exceeded() {
+								super(null, null, false, false);
+						}
+				}
+		}
+
+		boolean isShowInlineDiffs() {
+				return showInlineDiffs;
+		}
+
+		BiPredicate<String, String> getEqualizer() {
+				return equalizer;
+		}
+
+		int getColumnWidth() {
+				return columnWidth;
+		}
+
+		String oldTag(Tag tag, boolean start) {
+				return oldTag.apply(tag, start);
+		}
+
+		String newTag(Tag tag, boolean start) {
+				return newTag.apply(tag, start);
+		}
+
 		private DiffRow buildDiffRow(Tag type, String orgline, String newline) {
 				if (reportLinesUnchanged) {
 						return new DiffRow(type, orgline, newline);
@@ -392,107 +865,138 @@ public final class DiffRowGenerator {
 		private List<DiffRow> generateInlineDiffs(AbstractDelta<String> delta) {
 				List<String> orig = normalizeLines(delta.getSource().getLines());
 				List<String> rev = normalizeLines(delta.getTarget().getLines());
-				List<String> origList;
-				List<String> revList;
-				String joinedOrig = String.join("\n", orig);
-				String joinedRev = String.join("\n", rev);
-
-				origList = inlineDiffSplitter.apply(joinedOrig);
-				revList = inlineDiffSplitter.apply(joinedRev);
-
-				List<AbstractDelta<String>> originalInlineDeltas =
-								DiffUtils.diff(origList, revList, equalizer).getDeltas();
-				List<AbstractDelta<String>> inlineDeltas =
-								inlineDeltaMerger.apply(new InlineDeltaMergeInfo(originalInlineDeltas, origList, revList));
-
-				Collections.reverse(inlineDeltas);
+				InlineDiff inlineDiff = inlineDiff(String.join("\n", orig), String.join("\n", rev));
+				if (inlineDiff == null) {
+						// too expensive, show the changed lines as a whole
+						List<DiffRow> diffRows = new ArrayList<>();
+						List<String> origLines = delta.getSource().getLines();
+						List<String> revLines = delta.getTarget().getLines();
+						for (int j = 0; j < Math.max(origLines.size(), revLines.size()); j++) {
+								diffRows.add(buildDiffRow(
+																Tag.CHANGE,
+																j < origLines.size() ? origLines.get(j) : "",
+																j < revLines.size() ? revLines.get(j) : "")
+												.withInlineDiffFallback());
+						}
+						return diffRows;
+				}
+				List<String> origList = inlineDiff.origList;
+				List<String> revList = inlineDiff.revList;
+				List<AbstractDelta<String>> inlineDeltas = inlineDiff.deltas;
+
+				InlineRows origRows = new InlineRows();
+				InlineRows revRows = new InlineRows();
+				int origPos = 0;
+				int revPos = 0;
 				for (AbstractDelta<String> inlineDelta : inlineDeltas) {
-						Chunk<String> inlineOrig = inlineDelta.getSource();
-						Chunk<String> inlineRev = inlineDelta.getTarget();
+						Tag tag;
 						if (inlineDelta.getType() == DeltaType.DELETE) {
-								wrapInTag(
-												origList,
-												inlineOrig.getPosition(),
-												inlineOrig.getPosition() + inlineOrig.size(),
-												Tag.DELETE,
-												oldTag,
-												processDiffs,
-												replaceOriginalLinefeedInChangesWithSpaces && mergeOriginalRevised);
+								tag = Tag.DELETE;
 						} else if (inlineDelta.getType() == DeltaType.INSERT) {
-								if (mergeOriginalRevised) {
-										origList.addAll(
-														inlineOrig.getPosition(),
-														revList.subList(inlineRev.getPosition(), inlineRev.getPosition() + inlineRev.size()));
-										wrapInTag(
-														origList,
-														inlineOrig.getPosition(),
-														inlineOrig.getPosition() + inlineRev.size(),
-														Tag.INSERT,
-														newTag,
-														processDiffs,
-														false);
-								} else {
-										wrapInTag(
-														revList,
-														inlineRev.getPosition(),
-														inlineRev.getPosition() + inlineRev.size(),
-														Tag.INSERT,
-														newTag,
-														processDiffs,
-														false);
-								}
+								tag = Tag.INSERT;
 						} else if (inlineDelta.getType() == DeltaType.CHANGE) {
-								if (mergeOriginalRevised) {
-										origList.addAll(
-														inlineOrig.getPosition() + inlineOrig.size(),
-														revList.subList(inlineRev.getPosition(), inlineRev.getPosition() + inlineRev.size()));
-										wrapInTag(
-														origList,
-														inlineOrig.getPosition() + inlineOrig.size(),
-														inlineOrig.getPosition() + inlineOrig.size() + inlineRev.size(),
-														Tag.CHANGE,
-														newTag,
-														processDiffs,
-														false);
-								} else {
-										wrapInTag(
-														revList,
-														inlineRev.getPosition(),
-														inlineRev.getPosition() + inlineRev.size(),
-														Tag.CHANGE,
-														newTag,
-														processDiffs,
-														false);
-								}
-								wrapInTag(
+								tag = Tag.CHANGE;
+						} else {
+								continue;
+						}
+						Chunk<String> inlineOrig = inlineDelta.getSource();
+						Chunk<String> inlineRev = inlineDelta.getTarget();
+						origRows.appendAll(origList, origPos, inlineOrig.getPosition());
+						origPos = inlineOrig.getPosition();
+						if (tag != Tag.INSERT) {
+								appendInTag(
+												origRows,
 												origList,
-												inlineOrig.getPosition(),
-												inlineOrig.getPosition() + inlineOrig.size(),
-												Tag.CHANGE,
+												origPos,
+												origPos + inlineOrig.size(),
+												tag,
 												oldTag,
-												processDiffs,
 												replaceOriginalLinefeedInChangesWithSpaces && mergeOriginalRevised);
+								origPos += inlineOrig.size();
+						}
+						if (tag != Tag.DELETE) {
+								InlineRows rows = mergeOriginalRevised ? origRows : revRows;
+								int revStart = inlineRev.getPosition();
+								if (!mergeOriginalRevised) {
+										revRows.appendAll(revList, revPos, revStart);
+										revPos = revStart + inlineRev.size();
+								}
+								appendInTag(rows, revList, revStart, revStart + inlineRev.size(), tag, newTag, false);
 						}
 				}
-				StringBuilder origResult = new StringBuilder();
-				StringBuilder revResult = new StringBuilder();
-				for (String character : origList) {
-						origResult.append(character);
-				}
-				for (String character : revList) {
-						revResult.append(character);
-				}
+				origRows.appendAll(origList, origPos, origList.size());
+				revRows.appendAll(revList, revPos, revList.size());
 
-				List<String> original = Arrays.asList(origResult.toString().split("\n"));
-				List<String> revised = Arrays.asList(revResult.toString().split("\n"));
+				List<String> original = origRows.finish();
+				List<String> revised = revRows.finish();
 				List<DiffRow> diffRows = new ArrayList<>();
 				for (int j = 0; j < Math.max(original.size(), revised.size()); j++) {
-						diffRows.add(buildDiffRowWithoutNormalizing(
-										Tag.CHANGE, original.size() > j ? original.get(j) : "", revised.size() > j ? revised.get(j) : ""));
+						DiffRow row = buildDiffRowWithoutNormalizing(
+										Tag.CHANGE, original.size() > j ? original.get(j) : "", revised.size() > j ? revised.get(j) : "");
+						diffRows.add(inlineDiff.fallback ? row.withInlineDiffFallback() : row);
 				}
 				return diffRows;
 		}
 
+		/**
+		 * Appends the elements from start to end wrapped in the given tag. Unless
+		 * linefeeds are replaced by spaces, each run of elements between linefeeds
+		 * gets its own tag and the linefeeds are appended untagged.
+		 */
+		private void appendInTag(
+						InlineRows rows,
+						List<String> sequence,
+						int start,
+						int end,
+						Tag tag,
+						BiFunction<Tag, Boolean, String> tagGenerator,
+						boolean replaceLinefeedWithSpace) {
+				if (processDiffs == null && sequence instanceof CodePointList) {
+						String text = ((CodePointList) sequence).join(start, end);
+						if (replaceLinefeedWithSpace) {
+								text = text.replace('\n', ' ');
+						}
+						int from = 0;
+						for (; ; ) {
+								int lf = text.indexOf('\n', from);
+								int to = lf < 0 ? text.length() : lf;
+								if (from < to) {
+										rows.append(tagGenerator.apply(tag, true));
+										rows.append(text.substring(from, to));
+										rows.append(tagGenerator.apply(tag, false));
+								}
+								if (lf < 0) {
+										return;
+								}
+								rows.append("\n");
+								from = lf + 1;
+						}
+				}
+				boolean open = false;
+				for (int i = start; i < end; i++) {
+						String element = sequence.get(i);
+						if ("\n".equals(element)) {
+								if (!replaceLinefeedWithSpace) {
+										if (open) {
+												rows.append(tagGenerator.apply(tag, false));
+												open = false;
+										}
+										rows.append(element);
+										continue;
+								}
+								element = " ";
+						}
+						if (!open) {
+								rows.append(tagGenerator.apply(tag, true));
+								open = true;
+						}
+						rows.append(processDiffs != null ? processDiffs.apply(element) : element);
+				}
+				if (open) {
+						rows.append(tagGenerator.apply(tag, false));
+				}
+		}
+
 		private String preprocessLine(String line) {
 				if (columnWidth == 0) {
 						return lineNormalizer.apply(line);
@@ -514,6 +1018,131 @@ public final class DiffRowGenerator {
 				return equalityProcessor != null ? equalityProcessor.apply(text) : text;
 		}
 
+		/**
+		 * Collects the rendered inline text and cuts it into rows at each linefeed.
+		 * Trailing empty rows are dropped like {@link String#split(String)} does.
+		 */
+		private static final class InlineRows {
+				private final List<String> rows = new ArrayList<>();
+				private final StringBuilder row = new StringBuilder();
+				private boolean empty = true;
+
+				void appendAll(List<String> sequence, int start, int end) {
+						if (sequence instanceof CodePointList) {
+								append(((CodePointList) sequence).join(start, end));
+								return;
+						}
+						for (int i = start; i < end; i++) {
+								append(sequence.get(i));
+						}
+				}
+
+				void append(String text) {
+						int from = 0;
+						for (int lf = text.indexOf('\n'); lf >= 0; lf = text.indexOf('\n', from)) {
+								row.append(text, from, lf);
+								rows.add(row.toString());
+								row.setLength(0);
+								from = lf + 1;
+						}
+						row.append(text, from, text.length());
+						empty &= text.isEmpty();
+				}
+
+				List<String> finish() {
+						if (empty) {
+								return Collections.singletonList("");
+						}
+						rows.add(row.toString());
+						int size = rows.size();
+						while (size > 0 && rows.get(size - 1).isEmpty()) {
+								size--;
+						}
+						return rows.subList(0, size);
+				}
+		}
+
+		/**
+		 * Maps inline changes between the split tokens of the joined lines of a
+		 * delta to character ranges of the single lines. Changes have to be added
+		 * in ascending order.
+		 */
+		private static final class InlineRanges {
+				private final int[] lineStarts;
+				private final int[] lineEnds;
+				private final int[] tokenStarts;
+				// [line, start, end, tag] quadruples
+				private int[] data = new int[16];
+				private int size;
+				private int line;
+				private int cursor;
+
+				InlineRanges(List<String> lines, List<String> tokens) {
+						lineStarts = new int[lines.size()];
+						lineEnds = new int[lines.size()];
+						int offset = 0;
+						for (int i = 0; i < lines.size(); i++) {
+								lineStarts[i] = offset;
+								offset += lines.get(i).length();
+								lineEnds[i] = offset++;
+						}
+						tokenStarts = new int[tokens.size() + 1];
+						if (tokens instanceof CodePointList) {
+								for (int i = 1; i < tokenStarts.length; i++) {
+										tokenStarts[i] = ((CodePointList) tokens).offset(i);
+								}
+						} else {
+								for (int i = 0; i < tokens.size(); i++) {
+										tokenStarts[i + 1] = tokenStarts[i] + tokens.get(i).length();
+								}
+						}
+				}
+
+				void add(Chunk<String> chunk, Tag tag) {
+						int start = tokenStarts[chunk.getPosition()];
+						int end = tokenStarts[chunk.getPosition() + chunk.size()];
+						while (line < lineStarts.length && lineEnds[line] < start) {
+								line++;
+						}
+						for (int i = line; i < lineStarts.length && lineStarts[i] < end; i++) {
+								int from = Math.max(start, lineStarts[i]);
+								int to = Math.min(end, lineEnds[i]);
+								if (from < to) {
+										if (size + 4 > data.length) {
+												data = Arrays.copyOf(data, data.length * 2);
+										}
+										data[size++] = i;
+										data[size++] = from - lineStarts[i];
+										data[size++] = to - lineStarts[i];
+										data[size++] = tag.ordinal();
+								}
+						}
+				}
+
+				/**
+				 * @return the ranges of the given line, lines have to be requested in
+				 * ascending order
+				 */
+				int[] line(int index) {
+						while (cursor < size && data[cursor] < index) {
+								cursor += 4;
+						}
+						int count = 0;
+						while (cursor + count * 4 < size && data[cursor + count * 4] == index) {
+								count++;
+						}
+						if (count == 0) {
+								return InlineDiffRow.NO_RANGES;
+						}
+						int[] ranges = new int[count * 3];
+						for (int i = 0; i < count; i++) {
+								System.arraycopy(data, cursor + i * 4 + 1, ranges, i * 3, 3);
+						}
+						cursor += count * 4;
+						return ranges;
+				}
+		}
+
 		/**
 		 * This class used for building the DiffRowGenerator.
 		 *
@@ -525,6 +1154,11 @@ public final class DiffRowGenerator {
 				private boolean showInlineDiffs = false;
 				private boolean ignoreWhiteSpaces = false;
 				private boolean decompressDeltas = true;
+				private int contextLines = -1;
+				private Executor executor = null;
+				private int maxInlineDiffSize = Integer.MAX_VALUE;
+				private int maxInlineDiffSteps = Integer.MAX_VALUE;
+				private int inlineDiffCacheSize = 0;
 
 				private BiFunction<Tag, Boolean, String> oldTag = (tag, f) -> f ? "<span class=\"editOldInline\">" : "</span>";
 				private BiFunction<Tag, Boolean, String> newTag = (tag, f) -> f ? "<span class=\"editNewInline\">" : "</span>";
@@ -662,6 +1296,82 @@ public final class DiffRowGenerator {
 						return this;
 				}
 
+				/**
+				 * Limit the unchanged lines around each delta to the given number.
+				 * Longer runs of unchanged lines are replaced by a single
+				 * {@link Tag#SKIP} row holding the number of skipped lines, so these
+				 * lines are neither processed nor normalized.
+				 *
+				 * @param contextLines the number of unchanged lines to show before and
+				 * after each delta. Default: -1, which shows all lines.
+				 * @return builder with configured contextLines parameter
+				 */
+				public Builder contextLines(int contextLines) {
+						this.contextLines = contextLines;
+						return this;
+				}
+
+				/**
+				 * Compute the inline diffs of the changed deltas concurrently on the
+				 * given executor when generating all rows at once. The rows are the same
+				 * as without it, but the configured functions like the line normalizer
+				 * are then called concurrently.
+				 *
+				 * @param executor the executor running the inline diffs. Default: null,
+				 * which computes them one after the other.
+				 * @return builder with configured parallelism
+				 */
+				public Builder parallelism(Executor executor) {
+						this.executor = executor;
+						return this;
+				}
+
+				/**
+				 * Limit the number of elements the inline diff of a change compares on
+				 * each side, which are characters unless another splitter is configured.
+				 * A change exceeding it is split into words instead and if the words
+				 * exceed it as well, its lines are shown as a whole. The rows of such
+				 * changes are flagged by {@link DiffRow#isInlineDiffFallback()}.
+				 *
+				 * @param maxInlineDiffSize the maximum number of elements. Default: no
+				 * limit.
+				 * @return builder with configured maxInlineDiffSize parameter
+				 */
+				public Builder maxInlineDiffSize(int maxInlineDiffSize) {
+						this.maxInlineDiffSize = maxInlineDiffSize;
+						return this;
+				}
+
+				/**
+				 * Limit the steps of the diff algorithm for the inline diff of a change,
+				 * for the default Myers algorithm that is the number of differences D.
+				 * A change exceeding it falls back like for
+				 * {@link #maxInlineDiffSize(int)}.
+				 *
+				 * @param maxInlineDiffSteps the maximum number of steps. Default: no
+				 * limit.
+				 * @return builder with configured maxInlineDiffSteps parameter
+				 */
+				public Builder maxInlineDiffSteps(int maxInlineDiffSteps) {
+						this.maxInlineDiffSteps = maxInlineDiffSteps;
+						return this;
+				}
+
+				/**
+				 * Keep the inline diffs of up to the given number of changes, keyed by
+				 * their normalized lines, and reuse them for changes with the same lines,
+				 * as mass renames produce them. The cache belongs to the built generator
+				 * and may be used by concurrent calls.
+				 *
+				 * @param inlineDiffCacheSize the number of inline diffs to keep.
+				 * Default: 0, which disables the cache.
+				 * @return builder with configured inlineDiffCacheSize parameter
+				 */
+				public Builder inlineDiffCacheSize(int inlineDiffCacheSize) {
+						this.inlineDiffCacheSize = inlineDiffCacheSize;
+						return this;
+				}
+
 				/**
 				 * Build the DiffRowGenerator. If some parameters is not set, the
 				 * default values are used.
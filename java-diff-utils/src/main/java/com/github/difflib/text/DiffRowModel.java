@@ -0,0 +1,203 @@
+/*
+ * Copyright 2026 java-diff-utils.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.difflib.text;
+
+import com.github.difflib.patch.AbstractDelta;
+import com.github.difflib.patch.DeltaType;
+import com.github.difflib.patch.Patch;
+import com.github.difflib.text.DiffRow.Tag;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Random access to the DiffRows of a patch, e.g. for a view showing only some rows at a time. The
+ * rows are indexed up front by the number of rows each unchanged run and each delta yields, which
+ * only needs the sizes of the deltas. A row is generated when it is requested, together with the
+ * other rows of its delta, and the most recently used rows are kept.
+ *
+ * <p>The rows are those of {@link DiffRowGenerator#generateDiffRows(List, Patch)}, except that a
+ * delta always yields one row per line of its larger side. With
+ * {@link DiffRowGenerator.Builder#mergeOriginalRevised(boolean)} the merged inline diff may span
+ * more lines than either side. The surplus lines are folded into the last row of the delta, so
+ * such a row contains embedded linefeeds. Rows the inline diff drops, such as trailing empty
+ * lines, are filled with empty {@link Tag#CHANGE} rows.
+ *
+ * <p>Instances are thread safe.
+ */
+public final class DiffRowModel {
+
+		static final int DEFAULT_CACHE_SIZE = 1024;
+
+		private static final byte EQUAL = 0;
+		private static final byte SKIP = 1;
+		private static final byte DELTA = 2;
+
+		private final DiffRowGenerator generator;
+		private final List<String> original;
+		private final List<AbstractDelta<String>> deltas = new ArrayList<>();
+		// first row of each segment, ascending
+		private int[] starts = new int[16];
+		// first original line of an unchanged run, number of skipped lines or index of the delta
+		private int[] values = new int[16];
+		private byte[] kinds = new byte[16];
+		private int segments;
+		private int rowCount;
+		private final Map<Integer, DiffRow> cache;
+
+		DiffRowModel(DiffRowGenerator generator, List<String> original, Patch<String> patch, int cacheSize) {
+				this.generator = generator;
+				this.original = original;
+				this.cache = new LinkedHashMap<Integer, DiffRow>(16, 0.75f, true) {
+						private static final long serialVersionUID = 1L;
+
+						@Override
+						protected boolean removeEldestEntry(Map.Entry<Integer, DiffRow> eldest) {
+								return size() > cacheSize;
+						}
+				};
+
+				int endPos = 0;
+				boolean afterDelta = false;
+				for (AbstractDelta<String> patchDelta : patch.getDeltas()) {
+						for (AbstractDelta<String> delta : generator.rowDeltas(patchDelta)) {
+								addEqual(endPos, delta.getSource().getPosition(), afterDelta, true);
+								add(DELTA, deltas.size(), rowCount(delta));
+								deltas.add(delta);
+								endPos = delta.getSource().getPosition() + delta.getSource().size();
+								afterDelta = true;
+						}
+				}
+				addEqual(endPos, original.size(), afterDelta, false);
+		}
+
+		private void addEqual(int start, int end, boolean afterDelta, boolean beforeDelta) {
+				int head = generator.contextHead(end - start, afterDelta);
+				int tail = generator.contextTail(end - start, head, beforeDelta);
+				add(EQUAL, start, head);
+				if (head + tail < end - start) {
+						add(SKIP, end - start - head - tail, 1);
+				}
+				add(EQUAL, end - tail, tail);
+		}
+
+		private void add(byte kind, int value, int rows) {
+				if (rows == 0) {
+						return;
+				}
+				if (segments == starts.length) {
+						starts = Arrays.copyOf(starts, segments * 2);
+						values = Arrays.copyOf(values, segments * 2);
+						kinds = Arrays.copyOf(kinds, segments * 2);
+				}
+				starts[segments] = rowCount;
+				values[segments] = value;
+				kinds[segments] = kind;
+				segments++;
+				rowCount += rows;
+		}
+
+		private static int rowCount(AbstractDelta<String> delta) {
+				if (delta.getType() == DeltaType.INSERT) {
+						return delta.getTarget().size();
+				} else if (delta.getType() == DeltaType.DELETE) {
+						return delta.getSource().size();
+				}
+				return Math.max(delta.getSource().size(), delta.getTarget().size());
+		}
+
+		/**
+		 * @return the number of rows
+		 */
+		public int rowCount() {
+				return rowCount;
+		}
+
+		/**
+		 * @param index the index of the row
+		 * @return the row at the given index
+		 * @throws IndexOutOfBoundsException if the index is negative or not less than the row count
+		 */
+		public synchronized DiffRow row(int index) {
+				if (index < 0 || index >= rowCount) {
+						throw new IndexOutOfBoundsException("row " + index + " of " + rowCount);
+				}
+				DiffRow row = cache.get(index);
+				if (row != null) {
+						return row;
+				}
+				int segment = Arrays.binarySearch(starts, 0, segments, index);
+				if (segment < 0) {
+						segment = -segment - 2;
+				}
+				int start = starts[segment];
+				switch (kinds[segment]) {
+						case EQUAL:
+								row = generator.equalDiffRow(original.get(values[segment] + index - start));
+								break;
+						case SKIP:
+								row = DiffRow.skip(values[segment]);
+								break;
+						default:
+								AbstractDelta<String> delta = deltas.get(values[segment]);
+								List<DiffRow> rows = fit(generator.deltaDiffRows(delta), rowCount(delta));
+								for (int i = 0; i < rows.size(); i++) {
+										cache.put(start + i, rows.get(i));
+								}
+								return rows.get(index - start);
+				}
+				cache.put(index, row);
+				return row;
+		}
+
+		/**
+		 * @param from the index of the first row, inclusive
+		 * @param to the index of the last row, exclusive
+		 * @return the rows in the given range
+		 */
+		public List<DiffRow> rows(int from, int to) {
+				List<DiffRow> rows = new ArrayList<>(to - from);
+				for (int i = from; i < to; i++) {
+						rows.add(row(i));
+				}
+				return rows;
+		}
+
+		private static List<DiffRow> fit(List<DiffRow> rows, int count) {
+				while (rows.size() < count) {
+						rows.add(new DiffRow(Tag.CHANGE, "", ""));
+				}
+				if (rows.size() > count) {
+						List<DiffRow> surplus = rows.subList(count - 1, rows.size());
+						StringBuilder oldLine = new StringBuilder();
+						StringBuilder newLine = new StringBuilder();
+						for (int i = 0; i < surplus.size(); i++) {
+								if (i > 0) {
+										oldLine.append('\n');
+										newLine.append('\n');
+								}
+								oldLine.append(surplus.get(i).getOldLine());
+								newLine.append(surplus.get(i).getNewLine());
+						}
+						Tag tag = surplus.get(0).getTag();
+						surplus.clear();
+						rows.add(new DiffRow(tag, oldLine.toString(), newLine.toString()));
+				}
+				return rows;
+		}
+}
@@ -0,0 +1,170 @@
+/*
+ * Copyright 2026 java-diff-utils.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.difflib.text;
+
+import com.github.difflib.DiffUtils;
+import com.github.difflib.patch.AbstractDelta;
+import com.github.difflib.patch.Patch;
+import com.github.difflib.text.DiffRow.Tag;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.BiFunction;
+
+/**
+ * Writes a side-by-side diff as HTML table rows directly to an {@link Appendable}. Each row looks
+ * like
+ *
+ * <pre>
+ * &lt;tr class="change"&gt;&lt;td class="oldLine"&gt;...&lt;/td&gt;&lt;td class="newLine"&gt;...&lt;/td&gt;&lt;/tr&gt;
+ * </pre>
+ *
+ * with the lower case {@link Tag} as class, so the caller provides the surrounding table. The
+ * rows are rendered from the {@link InlineDiffRow}s of the given {@link DiffRowGenerator}, whose
+ * inline diff and tag options as well as the column width are used. Its line normalizer is not
+ * used: the raw lines are escaped while they are written and tabs are expanded to four spaces.
+ * Only the lines of the delta being written are held in memory.
+ *
+ * <p>The generator options {@code mergeOriginalRevised}, {@code processDiffs},
+ * {@code processEqualities}, {@code reportLinesUnchanged} and {@code contextLines} are ignored:
+ * each side is rendered in its own column and all lines are written.
+ */
+public final class HtmlDiffRenderer {
+
+		private final DiffRowGenerator generator;
+		private final Appendable out;
+		private final int columnWidth;
+		private int column;
+
+		private HtmlDiffRenderer(DiffRowGenerator generator, Appendable out) {
+				this.generator = generator;
+				this.out = out;
+				this.columnWidth = generator.getColumnWidth();
+		}
+
+		/**
+		 * Writes the rows describing the difference between original and revised texts.
+		 *
+		 * @param generator the generator providing the options
+		 * @param original the original text
+		 * @param revised the revised text
+		 * @param out the target of the HTML rows
+		 */
+		public static void render(DiffRowGenerator generator, List<String> original, List<String> revised, Appendable out)
+						throws IOException {
+				render(generator, original, DiffUtils.diff(original, revised, generator.getEqualizer()), out);
+		}
+
+		/**
+		 * Writes the rows describing the difference between the original text and the text the patch
+		 * produces from it.
+		 *
+		 * @param generator the generator providing the options
+		 * @param original the original text
+		 * @param patch the patch of the original text
+		 * @param out the target of the HTML rows
+		 */
+		public static void render(DiffRowGenerator generator, List<String> original, Patch<String> patch, Appendable out)
+						throws IOException {
+				HtmlDiffRenderer renderer = new HtmlDiffRenderer(generator, out);
+				boolean inline = generator.isShowInlineDiffs();
+				List<InlineDiffRow> rows = new ArrayList<>();
+				int pos = 0;
+				for (AbstractDelta<String> patchDelta : patch.getDeltas()) {
+						for (AbstractDelta<String> delta : generator.rowDeltas(patchDelta)) {
+								for (; pos < delta.getSource().getPosition(); pos++) {
+										renderer.writeRow(DiffRowGenerator.equalRow(original.get(pos)), false);
+								}
+								generator.addInlineDiffRows(delta, inline, rows);
+								for (InlineDiffRow row : rows) {
+										renderer.writeRow(row, inline);
+								}
+								rows.clear();
+								pos = delta.getSource().getPosition() + delta.getSource().size();
+						}
+				}
+				for (; pos < original.size(); pos++) {
+						renderer.writeRow(DiffRowGenerator.equalRow(original.get(pos)), false);
+				}
+		}
+
+		private void writeRow(InlineDiffRow row, boolean inline) throws IOException {
+				out.append("<tr class=\"").append(row.getTag().name().toLowerCase(Locale.ROOT));
+				out.append("\"><td class=\"oldLine\">");
+				writeLine(row.getOldLine(), inline ? row.getOldRanges() : InlineDiffRow.NO_RANGES, generator::oldTag);
+				out.append("</td><td class=\"newLine\">");
+				writeLine(row.getNewLine(), inline ? row.getNewRanges() : InlineDiffRow.NO_RANGES, generator::newTag);
+				out.append("</td></tr>\n");
+		}
+
+		private void writeLine(String line, int[] ranges, BiFunction<Tag, Boolean, String> tagGenerator)
+						throws IOException {
+				column = 0;
+				int pos = 0;
+				for (int i = 0; i < ranges.length; i += 3) {
+						Tag tag = InlineDiffRow.rangeTag(ranges, i / 3);
+						writeText(line, pos, ranges[i]);
+						out.append(tagGenerator.apply(tag, true));
+						writeText(line, ranges[i], ranges[i + 1]);
+						out.append(tagGenerator.apply(tag, false));
+						pos = ranges[i + 1];
+				}
+				writeText(line, pos, line.length());
+		}
+
+		/**
+		 * Writes the escaped text, breaking it after each columnWidth characters.
+		 */
+		private void writeText(String line, int from, int to) throws IOException {
+				int run = from;
+				for (int i = from; i < to; i++) {
+						char c = line.charAt(i);
+						boolean lowSurrogate = Character.isLowSurrogate(c);
+						if (columnWidth > 0 && column >= columnWidth && !lowSurrogate) {
+								out.append(line, run, i).append("<br/>");
+								run = i;
+								column = 0;
+						}
+						String entity = entity(c);
+						if (entity != null) {
+								out.append(line, run, i).append(entity);
+								run = i + 1;
+								column += c == '\t' ? entity.length() : 1;
+						} else if (!lowSurrogate) {
+								column++;
+						}
+				}
+				out.append(line, run, to);
+		}
+
+		private static String entity(char c) {
+				switch (c) {
+						case '<':
+								return "&lt;";
+						case '>':
+								return "&gt;";
+						case '&':
+								return "&amp;";
+						case '"':
+								return "&quot;";
+						case '\t':
+								return "    ";
+						default:
+								return null;
+				}
+		}
+}
@@ -0,0 +1,125 @@
+/*
+ * Copyright 2026 java-diff-utils.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.difflib.text;
+
+import com.github.difflib.text.DiffRow.Tag;
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Describes a diff row by its raw old and new line and the character ranges of their inline
+ * changes, so that any output format can style them without parsing markup.
+ *
+ * <p>The ranges are stored as consecutive triples {@code [start, end, tag]}: {@code start} is
+ * inclusive, {@code end} exclusive and {@code tag} is the ordinal of the {@link Tag} of the change.
+ * Ranges are sorted by position and do not overlap.
+ */
+public final class InlineDiffRow implements Serializable {
+
+		private static final long serialVersionUID = 1L;
+
+		static final int[] NO_RANGES = new int[0];
+
+		private static final Tag[] TAGS = Tag.values();
+
+		private final Tag tag;
+		private final String oldLine;
+		private final String newLine;
+		private final int[] oldRanges;
+		private final int[] newRanges;
+
+		InlineDiffRow(Tag tag, String oldLine, int[] oldRanges, String newLine, int[] newRanges) {
+				this.tag = tag;
+				this.oldLine = oldLine;
+				this.newLine = newLine;
+				this.oldRanges = oldRanges;
+				this.newRanges = newRanges;
+		}
+
+		/**
+		 * @return the tag
+		 */
+		public Tag getTag() {
+				return tag;
+		}
+
+		/**
+		 * @return the old line without any markup
+		 */
+		public String getOldLine() {
+				return oldLine;
+		}
+
+		/**
+		 * @return the new line without any markup
+		 */
+		public String getNewLine() {
+				return newLine;
+		}
+
+		/**
+		 * @return the {@code [start, end, tag]} triples of the changes within the old line. The array
+		 * is shared and must not be modified.
+		 */
+		public int[] getOldRanges() {
+				return oldRanges;
+		}
+
+		/**
+		 * @return the {@code [start, end, tag]} triples of the changes within the new line. The array
+		 * is shared and must not be modified.
+		 */
+		public int[] getNewRanges() {
+				return newRanges;
+		}
+
+		/**
+		 * @param ranges the ranges of a line
+		 * @param index the index of a range, counting triples
+		 * @return the tag of the range
+		 */
+		public static Tag rangeTag(int[] ranges, int index) {
+				return TAGS[ranges[index * 3 + 2]];
+		}
+
+		@Override
+		public int hashCode() {
+				return Objects.hash(tag, oldLine, newLine, Arrays.hashCode(oldRanges), Arrays.hashCode(newRanges));
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+				if (this == obj) {
+						return true;
+				}
+				if (obj == null || getClass() != obj.getClass()) {
+						return false;
+				}
+				InlineDiffRow other = (InlineDiffRow) obj;
+				return tag == other.tag
+								&& oldLine.equals(other.oldLine)
+								&& newLine.equals(other.newLine)
+								&& Arrays.equals(oldRanges, other.oldRanges)
+								&& Arrays.equals(newRanges, other.newRanges);
+		}
+
+		@Override
+		public String toString() {
+				return "[" + tag + "," + oldLine + "," + Arrays.toString(oldRanges) + "," + newLine + ","
+								+ Arrays.toString(newRanges) + "]";
+		}
+}
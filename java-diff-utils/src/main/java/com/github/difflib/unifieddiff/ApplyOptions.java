@@ -0,0 +1,134 @@
+/*
+ * Copyright 2026 java-diff-utils.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.difflib.unifieddiff;
+
+import java.nio.charset.Charset;
+import java.util.Objects;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * The options of {@link UnifiedDiff#applyTo(java.nio.file.Path, ApplyOptions)}. Use the builder
+ * from {@link #create()} to set them.
+ */
+public final class ApplyOptions {
+
+		private final Charset charset;
+		private final Executor executor;
+		private final int maxFuzz;
+		private final boolean dryRun;
+
+		private ApplyOptions(Builder builder) {
+				this.charset = builder.charset;
+				this.executor = builder.executor;
+				this.maxFuzz = builder.maxFuzz;
+				this.dryRun = builder.dryRun;
+		}
+
+		/**
+		 * @return a builder with the default options
+		 */
+		public static Builder create() {
+				return new Builder();
+		}
+
+		public Charset getCharset() {
+				return charset;
+		}
+
+		public Executor getExecutor() {
+				return executor;
+		}
+
+		public int getMaxFuzz() {
+				return maxFuzz;
+		}
+
+		public boolean isDryRun() {
+				return dryRun;
+		}
+
+		/**
+		 * This class used for building the ApplyOptions.
+		 */
+		public static final class Builder {
+
+				private Charset charset = Charset.defaultCharset();
+				private Executor executor = ForkJoinPool.commonPool();
+				private int maxFuzz = 0;
+				private boolean dryRun = false;
+
+				private Builder() {}
+
+				/**
+				 * The charset of the files. Default: the default charset.
+				 *
+				 * @param charset the charset to read and write the files
+				 * @return builder with configured charset
+				 */
+				public Builder charset(Charset charset) {
+						this.charset = Objects.requireNonNull(charset, "charset must not be null");
+						return this;
+				}
+
+				/**
+				 * Runs the patching of the files. Files are patched concurrently, unless they share a
+				 * path. Default: the common fork join pool.
+				 *
+				 * @param executor the executor
+				 * @return builder with configured executor
+				 */
+				public Builder executor(Executor executor) {
+						this.executor = Objects.requireNonNull(executor, "executor must not be null");
+						return this;
+				}
+
+				/**
+				 * The number of context lines that may be ignored at the start and end of a hunk to find
+				 * its position. Default: 0, the context has to match exactly.
+				 *
+				 * @param maxFuzz the maximum fuzz
+				 * @return builder with configured fuzz
+				 */
+				public Builder maxFuzz(int maxFuzz) {
+						if (maxFuzz < 0) {
+								throw new IllegalArgumentException("maxFuzz must not be negative");
+						}
+						this.maxFuzz = maxFuzz;
+						return this;
+				}
+
+				/**
+				 * Only checks that the patches apply, no file is changed. Default: false.
+				 *
+				 * @param dryRun true to leave the files untouched
+				 * @return builder with configured dry run
+				 */
+				public Builder dryRun(boolean dryRun) {
+						this.dryRun = dryRun;
+						return this;
+				}
+
+				/**
+				 * Build the ApplyOptions with the configured values.
+				 *
+				 * @return the options
+				 */
+				public ApplyOptions build() {
+						return new ApplyOptions(this);
+				}
+		}
+}
@@ -0,0 +1,133 @@
+/*
+ * Copyright 2026 java-diff-utils.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.difflib.unifieddiff;
+
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The outcome of applying a {@link UnifiedDiff} to a directory tree, one entry per file of the
+ * diff in the order of the diff.
+ */
+public final class ApplyResult {
+
+		/**
+		 * What happened to a file.
+		 */
+		public enum Status {
+				/**
+				 * The file was patched.
+				 */
+				MODIFIED,
+				/**
+				 * The file was created.
+				 */
+				CREATED,
+				/**
+				 * The file was deleted.
+				 */
+				DELETED,
+				/**
+				 * The file was patched and moved to its new name.
+				 */
+				RENAMED,
+				/**
+				 * A patched copy of the file was created.
+				 */
+				COPIED,
+				/**
+				 * The diff contains no changes of the file content, e.g. only a mode change.
+				 */
+				UNCHANGED,
+				/**
+				 * The patch does not fit the file, the file was not changed.
+				 */
+				CONFLICT,
+				/**
+				 * The file could not be read or written, or the diff entry can not be applied, like a
+				 * binary patch.
+				 */
+				FAILED
+		}
+
+		private final List<FileResult> files;
+
+		ApplyResult(List<FileResult> files) {
+				this.files = Collections.unmodifiableList(files);
+		}
+
+		public List<FileResult> getFiles() {
+				return files;
+		}
+
+		/**
+		 * @return true if no file has a conflict or failed
+		 */
+		public boolean isSuccessful() {
+				for (FileResult file : files) {
+						if (file.getStatus() == Status.CONFLICT || file.getStatus() == Status.FAILED) {
+								return false;
+						}
+				}
+				return true;
+		}
+
+		/**
+		 * The outcome for one file of the diff.
+		 */
+		public static final class FileResult {
+
+				private final UnifiedDiffFile file;
+				private final Path path;
+				private final Status status;
+				private final Exception error;
+
+				FileResult(UnifiedDiffFile file, Path path, Status status, Exception error) {
+						this.file = file;
+						this.path = path;
+						this.status = status;
+						this.error = error;
+				}
+
+				public UnifiedDiffFile getFile() {
+						return file;
+				}
+
+				/**
+				 * @return the written file, or the removed one for deletions
+				 */
+				public Path getPath() {
+						return path;
+				}
+
+				public Status getStatus() {
+						return status;
+				}
+
+				/**
+				 * @return the reason of a conflict or failure, otherwise null
+				 */
+				public Exception getError() {
+						return error;
+				}
+
+				@Override
+				public String toString() {
+						return status + " " + path + (error != null ? ": " + error.getMessage() : "");
+				}
+		}
+}
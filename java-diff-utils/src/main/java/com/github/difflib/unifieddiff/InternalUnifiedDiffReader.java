@@ -0,0 +1,163 @@
+/*
+ * Copyright 2026 java-diff-utils.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.difflib.unifieddiff;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+
+/**
+ * Reads the lines of a diff file byte by byte. Lines end with {@code \n}, {@code \r} or
+ * {@code \r\n} like for {@link java.io.BufferedReader#readLine()}, so the charset must encode
+ * these characters as single bytes. Only the lines that are really needed are decoded, others can
+ * be skipped after looking at their first byte.
+ */
+final class InternalUnifiedDiffReader {
+
+		private final InputStream in;
+		private final Charset charset;
+		private byte[] buffer = new byte[8192];
+		private int pos;
+		private int limit;
+		private boolean eof;
+		// position of buffer[0] within the stream
+		private long offset;
+		private long lineStart;
+
+		InternalUnifiedDiffReader(InputStream in, Charset charset) {
+				this.in = in;
+				this.charset = charset;
+		}
+
+		/**
+		 * @return the next line without its line terminator or null at the end of the stream
+		 */
+		String readLine() throws IOException {
+				int end = findLineEnd();
+				if (end < 0) {
+						return null;
+				}
+				String line = new String(buffer, pos, end - pos, charset);
+				skipLineTerminator(end);
+				return line;
+		}
+
+		/**
+		 * Skips the next line without decoding it.
+		 */
+		void skipLine() throws IOException {
+				int end = findLineEnd();
+				if (end >= 0) {
+						skipLineTerminator(end);
+				}
+		}
+
+		/**
+		 * @return the first byte of the next line, a line terminator for an empty line or -1 at the
+		 * end of the stream
+		 */
+		int peek() throws IOException {
+				if (pos == limit && !fill()) {
+						return -1;
+				}
+				return buffer[pos] & 0xFF;
+		}
+
+		boolean ready() throws IOException {
+				return pos < limit || (!eof && in.available() > 0);
+		}
+
+		/**
+		 * @return the stream position of the next line
+		 */
+		long position() {
+				return offset + pos;
+		}
+
+		/**
+		 * @return the stream position of the line read or skipped last
+		 */
+		long lastLineStart() {
+				return lineStart;
+		}
+
+		/**
+		 * @return the index of the line terminator, limit for a last line without terminator or -1 at
+		 * the end of the stream
+		 */
+		private int findLineEnd() throws IOException {
+				lineStart = position();
+				int scan = pos;
+				for (; ; ) {
+						for (; scan < limit; scan++) {
+								byte b = buffer[scan];
+								if (b == '\n' || b == '\r') {
+										return scan;
+								}
+						}
+						int scanned = scan - pos;
+						if (!fill()) {
+								return pos < limit ? limit : -1;
+						}
+						scan = pos + scanned;
+				}
+		}
+
+		private void skipLineTerminator(int end) throws IOException {
+				if (end == limit) {
+						pos = limit;
+				} else if (buffer[end] == '\r') {
+						pos = end + 1;
+						if ((pos < limit || fill()) && buffer[pos] == '\n') {
+								pos++;
+						}
+				} else {
+						pos = end + 1;
+				}
+		}
+
+		/**
+		 * Reads more bytes after the unread ones, which are moved to the start of the buffer.
+		 *
+		 * @return false at the end of the stream
+		 */
+		private boolean fill() throws IOException {
+				if (eof) {
+						return false;
+				}
+				if (pos > 0) {
+						System.arraycopy(buffer, pos, buffer, 0, limit - pos);
+						offset += pos;
+						limit -= pos;
+						pos = 0;
+				}
+				if (limit == buffer.length) {
+						byte[] larger = new byte[buffer.length * 2];
+						System.arraycopy(buffer, 0, larger, 0, limit);
+						buffer = larger;
+				}
+				int count;
+				do {
+						count = in.read(buffer, limit, buffer.length - limit);
+				} while (count == 0);
+				if (count < 0) {
+						eof = true;
+						return false;
+				}
+				limit += count;
+				return true;
+		}
+}
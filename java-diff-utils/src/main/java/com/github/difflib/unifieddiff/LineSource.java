@@ -0,0 +1,94 @@
+/*
+ * Copyright 2026 java-diff-utils.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.difflib.unifieddiff;
+
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Random access to the lines of an original file. {@link UnifiedDiffWriter} only reads the
+ * context lines around the changes, so an implementation does not need to keep the whole file in
+ * memory.
+ */
+public interface LineSource {
+
+		/**
+		 * @return the number of lines
+		 */
+		int size() throws IOException;
+
+		/**
+		 * @param index the index of the line, starting at 0
+		 * @return the line without its line terminator
+		 */
+		String get(int index) throws IOException;
+
+		/**
+		 * @param from the index of the first line
+		 * @param to the index after the last line
+		 * @return the lines from {@code from} to {@code to}
+		 */
+		default List<String> range(int from, int to) throws IOException {
+				List<String> lines = new ArrayList<>(to - from);
+				for (int i = from; i < to; i++) {
+						lines.add(get(i));
+				}
+				return lines;
+		}
+
+		/**
+		 * @param lines the lines
+		 * @return a source of the lines of the list
+		 */
+		static LineSource of(List<String> lines) {
+				Objects.requireNonNull(lines, "lines must not be null");
+				return new LineSource() {
+						@Override
+						public int size() {
+								return lines.size();
+						}
+
+						@Override
+						public String get(int index) {
+								return lines.get(index);
+						}
+
+						@Override
+						public List<String> range(int from, int to) {
+								return lines.subList(from, to);
+						}
+				};
+		}
+
+		/**
+		 * Memory maps a file and indexes the starts of its lines when they are accessed first. A
+		 * line is only decoded when it is read. Lines end with {@code \n}, {@code \r} or {@code \r\n}, so the charset must encode
+		 * these characters as single bytes.
+		 *
+		 * @param path the file
+		 * @param charset the charset of the file
+		 * @return a source of the lines of the file
+		 */
+		static LineSource of(Path path, Charset charset) {
+				Objects.requireNonNull(path, "path must not be null");
+				Objects.requireNonNull(charset, "charset must not be null");
+				return new MappedLineSource(path, charset);
+		}
+}
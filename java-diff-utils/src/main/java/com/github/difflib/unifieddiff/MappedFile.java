@@ -0,0 +1,94 @@
+/*
+ * Copyright 2026 java-diff-utils.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.difflib.unifieddiff;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * A memory mapped file. Files larger than 2 GB are mapped in several windows. The mapping stays
+ * valid after the file channel is closed, until the buffers are garbage collected.
+ */
+final class MappedFile {
+
+		private static final int WINDOW_SIZE = 1 << 30;
+
+		private final ByteBuffer[] windows;
+		private final long size;
+
+		private MappedFile(ByteBuffer[] windows, long size) {
+				this.windows = windows;
+				this.size = size;
+		}
+
+		static MappedFile map(Path path) throws IOException {
+				try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+						long size = channel.size();
+						ByteBuffer[] windows = new ByteBuffer[(int) ((size + WINDOW_SIZE - 1) / WINDOW_SIZE)];
+						for (int i = 0; i < windows.length; i++) {
+								long start = (long) i * WINDOW_SIZE;
+								windows[i] = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(WINDOW_SIZE, size - start));
+						}
+						return new MappedFile(windows, size);
+				}
+		}
+
+		long size() {
+				return size;
+		}
+
+		/**
+		 * Opens a stream of a part of the file. Streams can be used concurrently.
+		 */
+		InputStream open(long from, long to) {
+				return new InputStream() {
+						private long position = from;
+						private ByteBuffer window;
+
+						@Override
+						public int read() {
+								byte[] b = new byte[1];
+								return read(b, 0, 1) < 0 ? -1 : b[0] & 0xFF;
+						}
+
+						@Override
+						public int read(byte[] b, int off, int len) {
+								if (position >= to) {
+										return -1;
+								}
+								int index = (int) (position / WINDOW_SIZE);
+								int windowPosition = (int) (position % WINDOW_SIZE);
+								if (window == null || windowPosition == 0) {
+										window = windows[index].duplicate();
+								}
+								window.position(windowPosition);
+								int count = (int) Math.min(Math.min(len, window.remaining()), to - position);
+								window.get(b, off, count);
+								position += count;
+								return count;
+						}
+
+						@Override
+						public int available() {
+								return (int) Math.min(Integer.MAX_VALUE, to - position);
+						}
+				};
+		}
+}
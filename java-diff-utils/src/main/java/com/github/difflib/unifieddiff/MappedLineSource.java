@@ -0,0 +1,108 @@
+/*
+ * Copyright 2026 java-diff-utils.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.difflib.unifieddiff;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * The lines of a memory mapped file, found by the positions of their starts. The file is mapped
+ * and indexed when the lines are accessed first.
+ */
+final class MappedLineSource implements LineSource {
+
+		private final Path path;
+		private final Charset charset;
+		private MappedFile file;
+		// the start of each line and the end of the file
+		private long[] lineStarts;
+		private int size;
+
+		MappedLineSource(Path path, Charset charset) {
+				this.path = path;
+				this.charset = charset;
+		}
+
+		private void index() throws IOException {
+				if (file != null) {
+						return;
+				}
+				MappedFile mapped = MappedFile.map(path);
+				long[] starts = new long[1024];
+				int count = 0;
+				long position = 0;
+				boolean lineStarted = false;
+				boolean afterCarriageReturn = false;
+				byte[] buffer = new byte[8192];
+				try (InputStream in = mapped.open(0, mapped.size())) {
+						int read;
+						while ((read = in.read(buffer, 0, buffer.length)) >= 0) {
+								for (int i = 0; i < read; i++, position++) {
+										byte b = buffer[i];
+										if (b == '\n' && afterCarriageReturn) {
+												afterCarriageReturn = false;
+												continue;
+										}
+										if (!lineStarted) {
+												if (count + 1 >= starts.length) {
+														starts = Arrays.copyOf(starts, starts.length * 2);
+												}
+												starts[count++] = position;
+												lineStarted = true;
+										}
+										if (b == '\n' || b == '\r') {
+												lineStarted = false;
+										}
+										afterCarriageReturn = b == '\r';
+								}
+						}
+				}
+				starts[count] = mapped.size();
+				lineStarts = starts;
+				size = count;
+				file = mapped;
+		}
+
+		@Override
+		public int size() throws IOException {
+				index();
+				return size;
+		}
+
+		@Override
+		public String get(int index) throws IOException {
+				index();
+				if (index < 0 || index >= size) {
+						throw new IndexOutOfBoundsException("line " + index + " of " + size);
+				}
+				long from = lineStarts[index];
+				byte[] bytes = new byte[(int) (lineStarts[index + 1] - from)];
+				try (InputStream in = file.open(from, lineStarts[index + 1])) {
+						int offset = 0;
+						while (offset < bytes.length) {
+								offset += in.read(bytes, offset, bytes.length - offset);
+						}
+				}
+				int length = bytes.length;
+				while (length > 0 && (bytes[length - 1] == '\n' || bytes[length - 1] == '\r')) {
+						length--;
+				}
+				return new String(bytes, 0, length, charset);
+		}
+}
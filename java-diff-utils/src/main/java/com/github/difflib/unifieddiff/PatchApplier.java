@@ -0,0 +1,456 @@
+/*
+ * Copyright 2026 java-diff-utils.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.difflib.unifieddiff;
+
+import com.github.difflib.patch.Patch;
+import com.github.difflib.patch.PatchFailedException;
+import com.github.difflib.unifieddiff.ApplyResult.FileResult;
+import com.github.difflib.unifieddiff.ApplyResult.Status;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.PosixFilePermission;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Applies the files of a diff to a directory tree. Each file is patched by a task of the executor
+ * as soon as it is submitted. Tasks touching the same path run in the order of the diff and pass
+ * the patched content of the path on in memory, so a dry run sees the same content as a real
+ * one. Like git, copies and renames read their source as it was before the diff was applied.
+ */
+final class PatchApplier {
+
+		private final Path root;
+		private final ApplyOptions options;
+		private final List<CompletableFuture<FileResult>> results = new ArrayList<>();
+		// the content of each path before any task, null for a missing file
+		private final Map<Path, CompletableFuture<TextFile>> originals = new HashMap<>();
+		// the content of each path after the last submitted task touching it
+		private final Map<Path, CompletableFuture<TextFile>> contents = new HashMap<>();
+		// the sources of all renames, complete once all files are submitted
+		private final Set<Path> renameSources = new HashSet<>();
+		private final CompletableFuture<Void> submitted = new CompletableFuture<>();
+
+		PatchApplier(Path root, ApplyOptions options) {
+				this.root = root.toAbsolutePath().normalize();
+				this.options = options;
+		}
+
+		/**
+		 * Starts applying the file. Its patch must not change anymore.
+		 */
+		void submit(UnifiedDiffFile file) {
+				Path source = resolve(sourceName(file));
+				Path target = resolve(targetName(file));
+				boolean rename = file.getRenameFrom() != null;
+				boolean copy = file.getCopyFrom() != null;
+				// a copy leaves its source as it is
+				CompletableFuture<TextFile> sourceContent = source != null && !copy ? content(source) : null;
+				CompletableFuture<TextFile> targetContent = target != null ? content(target) : null;
+				CompletableFuture<TextFile> input = rename || copy ? original(source) : sourceContent;
+				List<CompletableFuture<?>> predecessors = new ArrayList<>(3);
+				for (CompletableFuture<?> predecessor : Arrays.asList(input, sourceContent, targetContent)) {
+						if (predecessor != null) {
+								predecessors.add(predecessor);
+						}
+				}
+				CompletableFuture<Void> ready = CompletableFuture.allOf(predecessors.toArray(new CompletableFuture<?>[0]));
+				if ((rename || copy) && target != null && !target.equals(source)) {
+						// an existing target may still be renamed away by a later file, e.g. when two files are swapped
+						ready = ready.thenCompose(
+										ignored -> targetContent.join() != null ? submitted : CompletableFuture.completedFuture(null));
+				}
+				CompletableFuture<Outcome> task = ready.handleAsync(
+								(ignored, error) -> apply(file, source, target, input, sourceContent, targetContent),
+								options.getExecutor());
+				if (sourceContent != null && !source.equals(target)) {
+						contents.put(
+										source,
+										task.thenCompose(outcome ->
+														outcome.sourceRemoved ? CompletableFuture.completedFuture(null) : sourceContent));
+				}
+				if (target != null) {
+						contents.put(
+										target,
+										task.thenCompose(outcome ->
+														outcome.applied ? CompletableFuture.completedFuture(outcome.target) : targetContent));
+				}
+				if (rename) {
+						renameSources.add(source);
+				}
+				results.add(task.thenApply(outcome -> outcome.result));
+		}
+
+		/**
+		 * Waits for all submitted files.
+		 */
+		ApplyResult finish() {
+				submitted.complete(null);
+				List<FileResult> files = new ArrayList<>(results.size());
+				for (CompletableFuture<FileResult> result : results) {
+						files.add(result.join());
+				}
+				return new ApplyResult(files);
+		}
+
+		private CompletableFuture<TextFile> original(Path path) {
+				return originals.computeIfAbsent(
+								path,
+								p -> CompletableFuture.supplyAsync(
+												() -> {
+														try {
+																return Files.exists(p) ? TextFile.read(p, options) : null;
+														} catch (IOException e) {
+																throw new UncheckedIOException(e);
+														}
+												},
+												options.getExecutor()));
+		}
+
+		private CompletableFuture<TextFile> content(Path path) {
+				return contents.computeIfAbsent(path, this::original);
+		}
+
+		private static boolean isNull(String name) {
+				return name == null || "/dev/null".equals(name);
+		}
+
+		private static String sourceName(UnifiedDiffFile file) {
+				if (file.getRenameFrom() != null) {
+						return file.getRenameFrom();
+				} else if (file.getCopyFrom() != null) {
+						return file.getCopyFrom();
+				} else if (file.getNewFileMode() != null || isNull(file.getFromFile())) {
+						return null;
+				}
+				return file.getFromFile();
+		}
+
+		private static String targetName(UnifiedDiffFile file) {
+				if (file.getRenameTo() != null) {
+						return file.getRenameTo();
+				} else if (file.getCopyTo() != null) {
+						return file.getCopyTo();
+				} else if (file.getDeletedFileMode() != null || isNull(file.getToFile())) {
+						return null;
+				}
+				return file.getToFile();
+		}
+
+		/**
+		 * @return the path within the root or null for a missing name; names leaving the root are
+		 * resolved to the root itself, which fails to be patched
+		 */
+		private Path resolve(String name) {
+				if (name == null) {
+						return null;
+				}
+				Path path = root.resolve(name).normalize();
+				return path.startsWith(root) ? path : root;
+		}
+
+		private Outcome apply(
+						UnifiedDiffFile file,
+						Path source,
+						Path target,
+						CompletableFuture<TextFile> input,
+						CompletableFuture<TextFile> sourceContent,
+						CompletableFuture<TextFile> targetContent) {
+				Path path = target != null ? target : source;
+				try {
+						if (path == null || path.equals(root)) {
+								throw new IOException("no valid file name");
+						}
+						if (file.getBinaryAdded() != null || file.getBinaryDeleted() != null || file.getBinaryEdited() != null) {
+								throw new IOException("binary patches are not supported");
+						}
+						Patch<String> patch = file.getPatch();
+						TextFile original = input != null ? join(input) : null;
+						if (source == null) {
+								if (join(targetContent) != null) {
+										throw new FileAlreadyExistsException(target.toString());
+								}
+								original = new TextFile();
+						} else if (original == null) {
+								throw new NoSuchFileException(source.toString());
+						}
+						if ((file.getRenameFrom() != null || file.getCopyFrom() != null)
+										&& !target.equals(source)
+										&& join(targetContent) != null
+										&& !renameSources.contains(target)) {
+								throw new PatchFailedException("the target " + target + " already exists");
+						}
+						List<String> lines = options.getMaxFuzz() > 0
+										? patch.applyFuzzy(original.lines, options.getMaxFuzz())
+										: patch.applyTo(original.lines);
+						if (target == null) {
+								if (!lines.isEmpty()) {
+										throw new PatchFailedException("the deleted file is not empty after patching");
+								}
+								if (!options.isDryRun()) {
+										Files.delete(source);
+								}
+								return new Outcome(new FileResult(file, path, Status.DELETED, null), true, null);
+						}
+						Status status;
+						if (source == null) {
+								status = Status.CREATED;
+						} else if (file.getRenameFrom() != null) {
+								status = Status.RENAMED;
+						} else if (file.getCopyFrom() != null) {
+								status = Status.COPIED;
+						} else if (patch.getDeltas().isEmpty() && !changesMode(file)) {
+								return new Outcome(new FileResult(file, path, Status.UNCHANGED, null));
+						} else {
+								status = Status.MODIFIED;
+						}
+						TextFile patched = original.patched(lines, file);
+						// the source is kept if an earlier file has written to it, e.g. when two files are swapped
+						boolean removeSource =
+										status == Status.RENAMED && !source.equals(target) && join(sourceContent) == join(input);
+						if (!options.isDryRun()) {
+								patched.write(target, options);
+								if (removeSource) {
+										Files.delete(source);
+								}
+						}
+						return new Outcome(new FileResult(file, path, status, null), removeSource, patched);
+				} catch (PatchFailedException e) {
+						return new Outcome(new FileResult(file, path, Status.CONFLICT, e));
+				} catch (IOException | RuntimeException e) {
+						return new Outcome(new FileResult(file, path, Status.FAILED, e));
+				}
+		}
+
+		private static boolean changesMode(UnifiedDiffFile file) {
+				return file.getNewMode() != null && !file.getNewMode().equals(file.getOldMode());
+		}
+
+		/**
+		 * @return the content of a path, rethrowing the error of reading it
+		 */
+		private static TextFile join(CompletableFuture<TextFile> content) throws IOException {
+				try {
+						return content.join();
+				} catch (CompletionException e) {
+						if (e.getCause() instanceof UncheckedIOException) {
+								throw ((UncheckedIOException) e.getCause()).getCause();
+						}
+						throw e;
+				}
+		}
+
+		/**
+		 * The result of a task and, if it applied its file, the content of its target.
+		 */
+		private static final class Outcome {
+				private final FileResult result;
+				private final boolean applied;
+				private final boolean sourceRemoved;
+				private final TextFile target;
+
+				Outcome(FileResult result) {
+						this.result = result;
+						this.applied = false;
+						this.sourceRemoved = false;
+						this.target = null;
+				}
+
+				Outcome(FileResult result, boolean sourceRemoved, TextFile target) {
+						this.result = result;
+						this.applied = true;
+						this.sourceRemoved = sourceRemoved;
+						this.target = target;
+				}
+		}
+
+		/**
+		 * The lines of a file with the line separator, final line feed and permissions of the file. New
+		 * files get the default permissions of the file system unless the diff gives their mode.
+		 */
+		private static final class TextFile {
+
+				private List<String> lines = new ArrayList<>();
+				private String lineSeparator = "\n";
+				private boolean finalLineEnded = true;
+				// null if unknown
+				private Set<PosixFilePermission> permissions;
+				// null if the permissions are kept as they are
+				private Boolean executable;
+
+				/**
+				 * @return the patched file, which ends with a line feed unless the patch says otherwise and
+				 * has the mode of the diff if it gives one
+				 */
+				TextFile patched(List<String> patchedLines, UnifiedDiffFile file) {
+						TextFile patched = new TextFile();
+						patched.lines = patchedLines;
+						patched.lineSeparator = lineSeparator;
+						patched.permissions = permissions;
+						String mode = file.getNewFileMode() != null ? file.getNewFileMode() : file.getNewMode();
+						if (mode != null) {
+								patched.executable = (Integer.parseInt(mode, 8) & 0111) != 0;
+						} else {
+								patched.executable = executable;
+						}
+						if (file.isNoNewLineAtTheEndOfTheRevisedFile()) {
+								patched.finalLineEnded = false;
+						} else if (file.isNoNewLineAtTheEndOfTheOriginalFile()) {
+								patched.finalLineEnded = true;
+						} else {
+								patched.finalLineEnded = finalLineEnded;
+						}
+						return patched;
+				}
+
+				static TextFile read(Path path, ApplyOptions options) throws IOException {
+						TextFile file = new TextFile();
+						String text = options.getCharset()
+										.newDecoder()
+										.decode(ByteBuffer.wrap(Files.readAllBytes(path)))
+										.toString();
+						int start = 0;
+						boolean separatorFound = false;
+						for (int i = 0; i < text.length(); i++) {
+								char ch = text.charAt(i);
+								if (ch == '\n' || ch == '\r') {
+										file.lines.add(text.substring(start, i));
+										int end = i + 1;
+										if (ch == '\r' && end < text.length() && text.charAt(end) == '\n') {
+												end++;
+										}
+										if (!separatorFound) {
+												file.lineSeparator = text.substring(i, end);
+												separatorFound = true;
+										}
+										i = end - 1;
+										start = end;
+								}
+						}
+						if (start < text.length()) {
+								file.lines.add(text.substring(start));
+								file.finalLineEnded = false;
+						}
+						try {
+								file.permissions = Files.getPosixFilePermissions(path);
+						} catch (UnsupportedOperationException e) {
+								// no POSIX file system, the permissions are not kept
+						}
+						return file;
+				}
+
+				/**
+				 * Writes a temporary file next to the target and moves it over the target. The temporary
+				 * file is created with the default permissions, which a new file keeps.
+				 */
+				void write(Path path, ApplyOptions options) throws IOException {
+						StringBuilder text = new StringBuilder();
+						for (int i = 0; i < lines.size(); i++) {
+								text.append(lines.get(i));
+								if (i < lines.size() - 1 || finalLineEnded) {
+										text.append(lineSeparator);
+								}
+						}
+						ByteBuffer bytes = options.getCharset().newEncoder().encode(CharBuffer.wrap(text));
+						Path directory = path.getParent();
+						Files.createDirectories(directory);
+						Path temp = createTempFile(directory, path.getFileName());
+						try {
+								try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+										while (bytes.hasRemaining()) {
+												channel.write(bytes);
+										}
+								}
+								Set<PosixFilePermission> mode = permissions(temp);
+								if (mode != null) {
+										Files.setPosixFilePermissions(temp, mode);
+								}
+								try {
+										Files.move(temp, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+								} catch (AtomicMoveNotSupportedException e) {
+										Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING);
+								}
+						} finally {
+								Files.deleteIfExists(temp);
+						}
+				}
+
+				/**
+				 * Unlike {@link Files#createTempFile(Path, String, String)}, which restricts the file to its
+				 * owner, creates the file with the permissions of the umask.
+				 */
+				private static Path createTempFile(Path directory, Path name) throws IOException {
+						for (; ; ) {
+								String suffix =
+												Long.toUnsignedString(ThreadLocalRandom.current().nextLong(), 36);
+								try {
+										return Files.createFile(directory.resolve("." + name + "." + suffix + ".tmp"));
+								} catch (FileAlreadyExistsException e) {
+										// try another name
+								}
+						}
+				}
+
+				/**
+				 * @return the permissions to set on the written file or null to keep those it was created with
+				 */
+				private Set<PosixFilePermission> permissions(Path written) throws IOException {
+						if (executable == null) {
+								return permissions;
+						}
+						Set<PosixFilePermission> mode = EnumSet.noneOf(PosixFilePermission.class);
+						try {
+								mode.addAll(permissions != null ? permissions : Files.getPosixFilePermissions(written));
+						} catch (UnsupportedOperationException e) {
+								// no POSIX file system, the mode is ignored
+								return null;
+						}
+						// like git, an executable file may be executed by everyone who may read it
+						setExecutable(mode, PosixFilePermission.OWNER_READ, PosixFilePermission.OWNER_EXECUTE);
+						setExecutable(mode, PosixFilePermission.GROUP_READ, PosixFilePermission.GROUP_EXECUTE);
+						setExecutable(mode, PosixFilePermission.OTHERS_READ, PosixFilePermission.OTHERS_EXECUTE);
+						return mode;
+				}
+
+				private void setExecutable(
+								Set<PosixFilePermission> mode, PosixFilePermission read, PosixFilePermission execute) {
+						if (executable && mode.contains(read)) {
+								mode.add(execute);
+						} else {
+								mode.remove(execute);
+						}
+				}
+		}
+}
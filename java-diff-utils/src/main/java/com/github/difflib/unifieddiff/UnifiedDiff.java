@@ -16,9 +16,11 @@
 package com.github.difflib.unifieddiff;
 
 import com.github.difflib.patch.PatchFailedException;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Objects;
 import java.util.function.Predicate;
 
 /**
@@ -68,6 +70,29 @@ public final class UnifiedDiff {
 				}
 		}
 
+		/**
+		 * Applies the patches of all files to a directory tree. The files are patched concurrently by
+		 * the executor of the options, files sharing a path in the order of the diff. New, deleted,
+		 * renamed and copied files are handled. Like git, copies and renames read their source as it
+		 * was before the diff, and renaming or copying onto an existing file is a conflict unless the
+		 * diff moves that file away. A file that does not fit its patch is reported as conflict and
+		 * left unchanged, the other files are patched anyway. Changed files are written to a temporary
+		 * file first, which is then moved over the original.
+		 *
+		 * @param root the directory the file names of the diff are relative to
+		 * @param options the options
+		 * @return the outcome for each file of this diff
+		 */
+		public ApplyResult applyTo(Path root, ApplyOptions options) {
+				Objects.requireNonNull(root, "root must not be null");
+				Objects.requireNonNull(options, "options must not be null");
+				PatchApplier applier = new PatchApplier(root, options);
+				for (UnifiedDiffFile file : files) {
+						applier.submit(file);
+				}
+				return applier.finish();
+		}
+
 		public static UnifiedDiff from(String header, String tail, UnifiedDiffFile... files) {
 				UnifiedDiff diff = new UnifiedDiff();
 				diff.setHeader(header);
@@ -16,6 +16,7 @@
 package com.github.difflib.unifieddiff;
 
 import com.github.difflib.patch.Patch;
+import java.util.function.Supplier;
 
 /**
  * Data structure for one patched file from a unified diff file.
@@ -42,7 +43,11 @@ public final class UnifiedDiffFile {
 		private String binaryDeleted;
 		private String binaryEdited;
 		private Patch<String> patch = new Patch<>();
+		// loads the patch on first access, see UnifiedDiffReader.index
+		private volatile Supplier<Patch<String>> patchLoader;
 		private boolean noNewLineAtTheEndOfTheFile = false;
+		private boolean noNewLineAtTheEndOfTheOriginalFile = false;
+		private boolean noNewLineAtTheEndOfTheRevisedFile = false;
 		private Integer similarityIndex;
 
 		public String getDiffCommand() {
@@ -78,9 +83,30 @@ public final class UnifiedDiffFile {
 		}
 
 		public Patch<String> getPatch() {
+				if (patchLoader != null) {
+						synchronized (this) {
+								Supplier<Patch<String>> loader = patchLoader;
+								if (loader != null) {
+										patch = loader.get();
+										patchLoader = null;
+								}
+						}
+				}
 				return patch;
 		}
 
+		void setPatchLoader(Supplier<Patch<String>> patchLoader) {
+				this.patchLoader = patchLoader;
+		}
+
+		/**
+		 * @return false if the patch of this file is parsed on first access and that did not happen
+		 * yet
+		 */
+		public boolean isPatchLoaded() {
+				return patchLoader == null;
+		}
+
 		public String getFromTimestamp() {
 				return fromTimestamp;
 		}
@@ -208,4 +234,28 @@ public final class UnifiedDiffFile {
 		public void setNoNewLineAtTheEndOfTheFile(boolean noNewLineAtTheEndOfTheFile) {
 				this.noNewLineAtTheEndOfTheFile = noNewLineAtTheEndOfTheFile;
 		}
+
+		/**
+		 * @return true if a no newline marker follows a removed or context line, so the original file
+		 * does not end with a line feed
+		 */
+		public boolean isNoNewLineAtTheEndOfTheOriginalFile() {
+				return noNewLineAtTheEndOfTheOriginalFile;
+		}
+
+		public void setNoNewLineAtTheEndOfTheOriginalFile(boolean noNewLineAtTheEndOfTheOriginalFile) {
+				this.noNewLineAtTheEndOfTheOriginalFile = noNewLineAtTheEndOfTheOriginalFile;
+		}
+
+		/**
+		 * @return true if a no newline marker follows an added or context line, so the revised file
+		 * does not end with a line feed
+		 */
+		public boolean isNoNewLineAtTheEndOfTheRevisedFile() {
+				return noNewLineAtTheEndOfTheRevisedFile;
+		}
+
+		public void setNoNewLineAtTheEndOfTheRevisedFile(boolean noNewLineAtTheEndOfTheRevisedFile) {
+				this.noNewLineAtTheEndOfTheRevisedFile = noNewLineAtTheEndOfTheRevisedFile;
+		}
 }
@@ -0,0 +1,97 @@
+/*
+ * Copyright 2026 java-diff-utils.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.difflib.unifieddiff;
+
+/**
+ * Receives the parts of a unified diff while it is read by
+ * {@link UnifiedDiffReader#parseUnifiedDiff(java.io.InputStream, UnifiedDiffHandler)}. Nothing is
+ * collected by the reader, so a diff of any size can be processed with constant memory.
+ *
+ * <p>
+ * The events of one file arrive in the order {@code onFileStart}, for each hunk {@code onHunk},
+ * {@code onLine} for each line and {@code onHunkEnd}, and finally {@code onFileEnd}. A hunk that
+ * is cut off by the end of the input does not get an {@code onHunkEnd}. All methods do nothing by
+ * default.
+ * </p>
+ */
+public interface UnifiedDiffHandler {
+
+		/**
+		 * The type of a line within a hunk.
+		 */
+		enum LineType {
+				/**
+				 * A line of both files, prefixed by a space.
+				 */
+				CONTEXT,
+				/**
+				 * A line of the revised file, prefixed by {@code +}.
+				 */
+				INSERT,
+				/**
+				 * A line of the original file, prefixed by {@code -}.
+				 */
+				DELETE
+		}
+
+		/**
+		 * Called for the text before the first file or between two files, e.g. a commit message.
+		 *
+		 * @param header the header lines, each terminated by a line feed
+		 */
+		default void onHeader(String header) throws UnifiedDiffParserException {}
+
+		/**
+		 * Called after the file header lines, like the diff command, the index or the file names,
+		 * were read.
+		 *
+		 * @param file the file, its patch stays empty
+		 */
+		default void onFileStart(UnifiedDiffFile file) throws UnifiedDiffParserException {}
+
+		/**
+		 * Called for each hunk header like {@code @@ -1,5 +1,6 @@}. Missing sizes are 1.
+		 */
+		default void onHunk(int oldStart, int oldSize, int newStart, int newSize) throws UnifiedDiffParserException {}
+
+		/**
+		 * Called for each line of a hunk.
+		 *
+		 * @param type the type of the line
+		 * @param text the line without its prefix
+		 */
+		default void onLine(LineType type, String text) throws UnifiedDiffParserException {}
+
+		/**
+		 * Called after the last line of a hunk.
+		 */
+		default void onHunkEnd() throws UnifiedDiffParserException {}
+
+		/**
+		 * Called after the last hunk of a file. The file now knows if its last line has no line
+		 * feed.
+		 *
+		 * @param file the file given to {@link #onFileStart(UnifiedDiffFile)}
+		 */
+		default void onFileEnd(UnifiedDiffFile file) throws UnifiedDiffParserException {}
+
+		/**
+		 * Called for the text following the last file, e.g. a signature.
+		 *
+		 * @param tail the tail lines, separated by line feeds
+		 */
+		default void onTail(String tail) throws UnifiedDiffParserException {}
+}
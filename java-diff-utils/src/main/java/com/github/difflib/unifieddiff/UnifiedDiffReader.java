@@ -17,15 +17,22 @@ package com.github.difflib.unifieddiff;
 
 import com.github.difflib.patch.ChangeDelta;
 import com.github.difflib.patch.Chunk;
-import java.io.BufferedReader;
+import com.github.difflib.patch.Patch;
+import com.github.difflib.unifieddiff.UnifiedDiffHandler.LineType;
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.InputStreamReader;
-import java.io.Reader;
+import java.nio.charset.Charset;
+import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
 import java.util.function.BiConsumer;
+import java.util.function.Predicate;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.util.regex.MatchResult;
@@ -43,144 +50,141 @@ public final class UnifiedDiffReader {
 		static final Pattern TIMESTAMP_REGEXP =
 						Pattern.compile("(\\d{4}-\\d{2}-\\d{2}[T ]\\d{2}:\\d{2}:\\d{2}\\.\\d{3,})(?: [+-]\\d+)?");
 
+		private static final Pattern DIFF_COMMAND_REGEXP = Pattern.compile("^diff\\s");
+		private static final Pattern SIMILARITY_INDEX_REGEXP = Pattern.compile("^similarity index (\\d+)%$");
+		private static final Pattern INDEX_REGEXP = Pattern.compile("^index\\s[\\da-zA-Z]+\\.\\.[\\da-zA-Z]+(\\s(\\d+))?$");
+		private static final Pattern FROM_FILE_REGEXP = Pattern.compile("^---\\s");
+		private static final Pattern TO_FILE_REGEXP = Pattern.compile("^\\+\\+\\+\\s");
+		private static final Pattern RENAME_FROM_REGEXP = Pattern.compile("^rename\\sfrom\\s(.+)$");
+		private static final Pattern RENAME_TO_REGEXP = Pattern.compile("^rename\\sto\\s(.+)$");
+		private static final Pattern COPY_FROM_REGEXP = Pattern.compile("^copy\\sfrom\\s(.+)$");
+		private static final Pattern COPY_TO_REGEXP = Pattern.compile("^copy\\sto\\s(.+)$");
+		private static final Pattern NEW_FILE_MODE_REGEXP = Pattern.compile("^new\\sfile\\smode\\s(\\d+)");
+		private static final Pattern DELETED_FILE_MODE_REGEXP = Pattern.compile("^deleted\\sfile\\smode\\s(\\d+)");
+		private static final Pattern OLD_MODE_REGEXP = Pattern.compile("^old\\smode\\s(\\d+)");
+		private static final Pattern NEW_MODE_REGEXP = Pattern.compile("^new\\smode\\s(\\d+)");
+		private static final Pattern BINARY_ADDED_REGEXP =
+						Pattern.compile("^Binary\\sfiles\\s/dev/null\\sand\\sb/(.+)\\sdiffer");
+		private static final Pattern BINARY_DELETED_REGEXP =
+						Pattern.compile("^Binary\\sfiles\\sa/(.+)\\sand\\s/dev/null\\sdiffer");
+		private static final Pattern BINARY_EDITED_REGEXP =
+						Pattern.compile("^Binary\\sfiles\\sa/(.+)\\sand\\sb/(.+)\\sdiffer");
+		private static final int MIN_SECTION_SIZE = 64 * 1024;
+
+		private static final Pattern FILE_NAME_PREFIX_REGEXP = Pattern.compile("^(a|b|old|new)/");
+
 		private final InternalUnifiedDiffReader READER;
-		private final UnifiedDiff data = new UnifiedDiff();
+		private final UnifiedDiffHandler handler;
 
-		private final UnifiedDiffLine DIFF_COMMAND = new UnifiedDiffLine(true, "^diff\\s", this::processDiff);
+		private final UnifiedDiffLine DIFF_COMMAND = new UnifiedDiffLine(true, DIFF_COMMAND_REGEXP, this::processDiff);
 		private final UnifiedDiffLine SIMILARITY_INDEX =
-						new UnifiedDiffLine(true, "^similarity index (\\d+)%$", this::processSimilarityIndex);
-		private final UnifiedDiffLine INDEX =
-						new UnifiedDiffLine(true, "^index\\s[\\da-zA-Z]+\\.\\.[\\da-zA-Z]+(\\s(\\d+))?$", this::processIndex);
-		private final UnifiedDiffLine FROM_FILE = new UnifiedDiffLine(true, "^---\\s", this::processFromFile);
-		private final UnifiedDiffLine TO_FILE = new UnifiedDiffLine(true, "^\\+\\+\\+\\s", this::processToFile);
-		private final UnifiedDiffLine RENAME_FROM =
-						new UnifiedDiffLine(true, "^rename\\sfrom\\s(.+)$", this::processRenameFrom);
-		private final UnifiedDiffLine RENAME_TO = new UnifiedDiffLine(true, "^rename\\sto\\s(.+)$", this::processRenameTo);
-
-		private final UnifiedDiffLine COPY_FROM = new UnifiedDiffLine(true, "^copy\\sfrom\\s(.+)$", this::processCopyFrom);
-		private final UnifiedDiffLine COPY_TO = new UnifiedDiffLine(true, "^copy\\sto\\s(.+)$", this::processCopyTo);
+						new UnifiedDiffLine(true, SIMILARITY_INDEX_REGEXP, this::processSimilarityIndex);
+		private final UnifiedDiffLine INDEX = new UnifiedDiffLine(true, INDEX_REGEXP, this::processIndex);
+		private final UnifiedDiffLine FROM_FILE = new UnifiedDiffLine(true, FROM_FILE_REGEXP, this::processFromFile);
+		private final UnifiedDiffLine TO_FILE = new UnifiedDiffLine(true, TO_FILE_REGEXP, this::processToFile);
+		private final UnifiedDiffLine RENAME_FROM = new UnifiedDiffLine(true, RENAME_FROM_REGEXP, this::processRenameFrom);
+		private final UnifiedDiffLine RENAME_TO = new UnifiedDiffLine(true, RENAME_TO_REGEXP, this::processRenameTo);
+
+		private final UnifiedDiffLine COPY_FROM = new UnifiedDiffLine(true, COPY_FROM_REGEXP, this::processCopyFrom);
+		private final UnifiedDiffLine COPY_TO = new UnifiedDiffLine(true, COPY_TO_REGEXP, this::processCopyTo);
 
 		private final UnifiedDiffLine NEW_FILE_MODE =
-						new UnifiedDiffLine(true, "^new\\sfile\\smode\\s(\\d+)", this::processNewFileMode);
+						new UnifiedDiffLine(true, NEW_FILE_MODE_REGEXP, this::processNewFileMode);
 
 		private final UnifiedDiffLine DELETED_FILE_MODE =
-						new UnifiedDiffLine(true, "^deleted\\sfile\\smode\\s(\\d+)", this::processDeletedFileMode);
-		private final UnifiedDiffLine OLD_MODE = new UnifiedDiffLine(true, "^old\\smode\\s(\\d+)", this::processOldMode);
-		private final UnifiedDiffLine NEW_MODE = new UnifiedDiffLine(true, "^new\\smode\\s(\\d+)", this::processNewMode);
+						new UnifiedDiffLine(true, DELETED_FILE_MODE_REGEXP, this::processDeletedFileMode);
+		private final UnifiedDiffLine OLD_MODE = new UnifiedDiffLine(true, OLD_MODE_REGEXP, this::processOldMode);
+		private final UnifiedDiffLine NEW_MODE = new UnifiedDiffLine(true, NEW_MODE_REGEXP, this::processNewMode);
 		private final UnifiedDiffLine BINARY_ADDED =
-						new UnifiedDiffLine(true, "^Binary\\sfiles\\s/dev/null\\sand\\sb/(.+)\\sdiffer", this::processBinaryAdded);
-		private final UnifiedDiffLine BINARY_DELETED = new UnifiedDiffLine(
-						true, "^Binary\\sfiles\\sa/(.+)\\sand\\s/dev/null\\sdiffer", this::processBinaryDeleted);
+						new UnifiedDiffLine(true, BINARY_ADDED_REGEXP, this::processBinaryAdded);
+		private final UnifiedDiffLine BINARY_DELETED =
+						new UnifiedDiffLine(true, BINARY_DELETED_REGEXP, this::processBinaryDeleted);
 		private final UnifiedDiffLine BINARY_EDITED =
-						new UnifiedDiffLine(true, "^Binary\\sfiles\\sa/(.+)\\sand\\sb/(.+)\\sdiffer", this::processBinaryEdited);
-		private final UnifiedDiffLine CHUNK = new UnifiedDiffLine(false, UNIFIED_DIFF_CHUNK_REGEXP, this::processChunk);
-		private final UnifiedDiffLine LINE_NORMAL = new UnifiedDiffLine("^\\s", this::processNormalLine);
-		private final UnifiedDiffLine LINE_DEL = new UnifiedDiffLine("^-", this::processDelLine);
-		private final UnifiedDiffLine LINE_ADD = new UnifiedDiffLine("^\\+", this::processAddLine);
+						new UnifiedDiffLine(true, BINARY_EDITED_REGEXP, this::processBinaryEdited);
 
 		private UnifiedDiffFile actualFile;
 
-		UnifiedDiffReader(Reader reader) {
-				this.READER = new InternalUnifiedDiffReader(reader);
+		UnifiedDiffReader(InternalUnifiedDiffReader reader, UnifiedDiffHandler handler, boolean skipLines) {
+				this.READER = reader;
+				this.handler = handler;
+				this.skipLines = skipLines;
 		}
 
 		// schema = [[/^\s+/, normal], [/^diff\s/, start], [/^new file mode \d+$/, new_file],
 		// [/^deleted file mode \d+$/, deleted_file], [/^index\s[\da-zA-Z]+\.\.[\da-zA-Z]+(\s(\d+))?$/, index],
 		// [/^---\s/, from_file], [/^\+\+\+\s/, to_file], [/^@@\s+\-(\d+),?(\d+)?\s+\+(\d+),?(\d+)?\s@@/, chunk],
 		// [/^-/, del], [/^\+/, add], [/^\\ No newline at end of file$/, eof]];
-		private UnifiedDiff parse() throws IOException, UnifiedDiffParserException {
-				//        String headerTxt = "";
-				//        LOG.log(Level.FINE, "header parsing");
-				//        String line = null;
-				//        while (READER.ready()) {
-				//            line = READER.readLine();
-				//            LOG.log(Level.FINE, "parsing line {0}", line);
-				//            if (DIFF_COMMAND.validLine(line) || INDEX.validLine(line)
-				//                    || FROM_FILE.validLine(line) || TO_FILE.validLine(line)
-				//                    || NEW_FILE_MODE.validLine(line)) {
-				//                break;
-				//            } else {
-				//                headerTxt += line + "\n";
-				//            }
-				//        }
-				//        if (!"".equals(headerTxt)) {
-				//            data.setHeader(headerTxt);
-				//        }
-
+		//
+		// Lines are dispatched by their first character. Chunk headers and data lines are scanned by
+		// hand, the regular expressions are only used for the rare file header lines.
+		private void parse() throws IOException, UnifiedDiffParserException {
 				String line = READER.readLine();
 				while (line != null) {
-						String headerTxt = "";
+						StringBuilder headerTxt = new StringBuilder();
 						LOG.log(Level.FINE, "header parsing");
 						while (line != null) {
-								LOG.log(Level.FINE, "parsing line {0}", line);
-								if (validLine(
-												line,
-												DIFF_COMMAND,
-												SIMILARITY_INDEX,
-												INDEX,
-												FROM_FILE,
-												TO_FILE,
-												RENAME_FROM,
-												RENAME_TO,
-												COPY_FROM,
-												COPY_TO,
-												NEW_FILE_MODE,
-												DELETED_FILE_MODE,
-												OLD_MODE,
-												NEW_MODE,
-												BINARY_ADDED,
-												BINARY_DELETED,
-												BINARY_EDITED,
-												CHUNK)) {
+								if (LOG.isLoggable(Level.FINE)) {
+										LOG.log(Level.FINE, "parsing line {0}", line);
+								}
+								if (findFileRule(line) != null || isChunkHeader(line)) {
 										break;
 								} else {
-										headerTxt += line + "\n";
+										headerTxt.append(line).append('\n');
 								}
 								line = READER.readLine();
 						}
-						if (!"".equals(headerTxt)) {
-								data.setHeader(headerTxt);
+						if (headerTxt.length() > 0) {
+								handler.onHeader(headerTxt.toString());
 						}
-						if (line != null && !CHUNK.validLine(line)) {
+						if (line != null && !isChunkHeader(line)) {
 								initFileIfNecessary();
-								while (line != null && !CHUNK.validLine(line)) {
-										if (!processLine(
-														line,
-														DIFF_COMMAND,
-														SIMILARITY_INDEX,
-														INDEX,
-														FROM_FILE,
-														TO_FILE,
-														RENAME_FROM,
-														RENAME_TO,
-														COPY_FROM,
-														COPY_TO,
-														NEW_FILE_MODE,
-														DELETED_FILE_MODE,
-														OLD_MODE,
-														NEW_MODE,
-														BINARY_ADDED,
-														BINARY_DELETED,
-														BINARY_EDITED)) {
+								while (line != null && !isChunkHeader(line)) {
+										UnifiedDiffLine rule = findFileRule(line);
+										if (rule == null) {
+												LOG.log(Level.WARNING, "  >>> no rule matched {0}", line);
 												throw new UnifiedDiffParserException("expected file start line not found");
 										}
+										if (rule == DIFF_COMMAND && actualFile.getDiffCommand() != null) {
+												// the previous file has no chunks, e.g. it only changes the mode
+												fileEnd = READER.lastLineStart();
+												startFile();
+												initFileIfNecessary();
+										}
+										rule.processLine(line);
 										line = READER.readLine();
 								}
+								if (line == null) {
+										incomplete = true;
+										fileEnd = READER.position();
+								} else {
+										fileEnd = READER.lastLineStart();
+								}
+								startFile();
 						}
 						if (line != null) {
-								processLine(line, CHUNK);
-								while ((line = READER.readLine()) != null) {
-										line = checkForNoNewLineAtTheEndOfTheFile(line);
+								processChunk(line);
+								incomplete = true;
+								for (; ; ) {
+										if (reportsLines() || !skipDataLine()) {
+												if ((line = READER.readLine()) == null) {
+														break;
+												}
+												line = checkForNoNewLineAtTheEndOfTheFile(line);
 
-										if (!processLine(line, LINE_NORMAL, LINE_ADD, LINE_DEL)) {
-												throw new UnifiedDiffParserException("expected data line not found");
+												if (!processDataLine(line)) {
+														throw new UnifiedDiffParserException("expected data line not found");
+												}
 										}
-										if ((originalTxt.size() == old_size && revisedTxt.size() == new_size)
+										if ((oldLineCount == old_size && newLineCount == new_size)
 														|| (old_size == 0
 																		&& new_size == 0
-																		&& originalTxt.size() == this.old_ln
-																		&& revisedTxt.size() == this.new_ln)) {
-												finalizeChunk();
+																		&& oldLineCount == this.old_ln
+																		&& newLineCount == this.new_ln)) {
+												if (!skipFile) {
+														handler.onHunkEnd();
+												}
+												incomplete = false;
+												fileEnd = READER.position();
 												break;
 										}
 								}
@@ -189,27 +193,37 @@ public final class UnifiedDiffReader {
 								line = checkForNoNewLineAtTheEndOfTheFile(line);
 						}
 						if (line == null || (line.startsWith("--") && !line.startsWith("---"))) {
+								tailStarted = line != null;
 								break;
 						}
 				}
 
+				if (actualFile != null && !skipFile) {
+						handler.onFileEnd(actualFile);
+				}
+
 				if (READER.ready()) {
-						String tailTxt = "";
+						StringBuilder tailTxt = new StringBuilder();
 						while (READER.ready()) {
 								if (tailTxt.length() > 0) {
-										tailTxt += "\n";
+										tailTxt.append('\n');
 								}
-								tailTxt += READER.readLine();
+								tailTxt.append(READER.readLine());
 						}
-						data.setTailTxt(tailTxt);
+						handler.onTail(tailTxt.toString());
 				}
-
-				return data;
 		}
 
 		private String checkForNoNewLineAtTheEndOfTheFile(String line) throws IOException {
 				if ("\\ No newline at end of file".equals(line)) {
 						actualFile.setNoNewLineAtTheEndOfTheFile(true);
+						if (lastLineType != '+') {
+								actualFile.setNoNewLineAtTheEndOfTheOriginalFile(true);
+						}
+						if (lastLineType != '-') {
+								actualFile.setNoNewLineAtTheEndOfTheRevisedFile(true);
+						}
+						fileEnd = READER.position();
 						return READER.readLine();
 				}
 				return line;
@@ -217,7 +231,11 @@ public final class UnifiedDiffReader {
 
 		static String[] parseFileNames(String line) {
 				String[] split = line.split(" ");
-				return new String[] {split[2].replaceAll("^a/", ""), split[3].replaceAll("^b/", "")};
+				return new String[] {removePrefix(split[2], "a/"), removePrefix(split[3], "b/")};
+		}
+
+		private static String removePrefix(String name, String prefix) {
+				return name.startsWith(prefix) ? name.substring(prefix.length()) : name;
 		}
 
 		private static final Logger LOG = Logger.getLogger(UnifiedDiffReader.class.getName());
@@ -231,53 +249,550 @@ public final class UnifiedDiffReader {
 		 * @throws UnifiedDiffParserException
 		 */
 		public static UnifiedDiff parseUnifiedDiff(InputStream stream) throws IOException, UnifiedDiffParserException {
-				UnifiedDiffReader parser = new UnifiedDiffReader(new BufferedReader(new InputStreamReader(stream)));
-				return parser.parse();
+				TreeBuilder builder = new TreeBuilder();
+				parseUnifiedDiff(stream, builder);
+				return builder.data;
 		}
 
-		private boolean processLine(String line, UnifiedDiffLine... rules) throws UnifiedDiffParserException {
-				if (line == null) {
+		/**
+		 * To stream a diff file use this method. Instead of building a {@link UnifiedDiff} the
+		 * parts of the diff are reported to the handler while they are read.
+		 *
+		 * @param stream This is the diff file data.
+		 * @param handler receives the parts of the diff
+		 * @throws IOException
+		 * @throws UnifiedDiffParserException
+		 */
+		public static void parseUnifiedDiff(InputStream stream, UnifiedDiffHandler handler)
+						throws IOException, UnifiedDiffParserException {
+				Objects.requireNonNull(handler, "handler must not be null");
+				UnifiedDiffReader parser =
+								new UnifiedDiffReader(new InternalUnifiedDiffReader(stream, Charset.defaultCharset()), handler, false);
+				parser.parse();
+		}
+
+		/**
+		 * To parse only some files of a diff file use this method. The hunks of the other files are
+		 * skipped by their line counts without decoding their lines, so these files cost little more
+		 * than reading them.
+		 *
+		 * @param stream This is the diff file data.
+		 * @param fileFilter accepts the paths of the files to parse. The path is the new file name,
+		 * for deleted files the old one.
+		 * @return In a UnifiedDiff structure this diff file data is returned, containing only the
+		 * accepted files.
+		 * @throws IOException
+		 * @throws UnifiedDiffParserException
+		 */
+		public static UnifiedDiff parseUnifiedDiff(InputStream stream, Predicate<String> fileFilter)
+						throws IOException, UnifiedDiffParserException {
+				Objects.requireNonNull(fileFilter, "fileFilter must not be null");
+				TreeBuilder builder = new TreeBuilder();
+				UnifiedDiffReader parser =
+								new UnifiedDiffReader(new InternalUnifiedDiffReader(stream, Charset.defaultCharset()), builder, false);
+				parser.fileFilter = fileFilter;
+				parser.parse();
+				return builder.data;
+		}
+
+		/**
+		 * To patch a directory tree with a diff file use this method. Each file is patched as soon as
+		 * it was read, while the following files are still parsed. The result is the same as from
+		 * {@link UnifiedDiff#applyTo(Path, ApplyOptions)} on the parsed diff.
+		 *
+		 * @param stream This is the diff file data.
+		 * @param root the directory the file names of the diff are relative to
+		 * @param options the options
+		 * @return the outcome for each file of the diff
+		 * @throws IOException
+		 * @throws UnifiedDiffParserException
+		 */
+		public static ApplyResult applyUnifiedDiff(InputStream stream, Path root, ApplyOptions options)
+						throws IOException, UnifiedDiffParserException {
+				Objects.requireNonNull(root, "root must not be null");
+				Objects.requireNonNull(options, "options must not be null");
+				PatchApplier applier = new PatchApplier(root, options);
+				TreeBuilder builder = new TreeBuilder();
+				builder.applier = applier;
+				try {
+						parseUnifiedDiff(stream, builder);
+				} catch (IOException | RuntimeException e) {
+						// let the files already submitted be patched completely
+						applier.finish();
+						throw e;
+				}
+				return applier.finish();
+		}
+
+		/**
+		 * Counts the inserted and deleted lines of each file without building patches.
+		 *
+		 * @see UnifiedDiffStats#compute(InputStream)
+		 */
+		static UnifiedDiffStats computeStats(InputStream stream) throws IOException, UnifiedDiffParserException {
+				StatsBuilder builder = new StatsBuilder();
+				UnifiedDiffReader parser =
+								new UnifiedDiffReader(new InternalUnifiedDiffReader(stream, Charset.defaultCharset()), builder, true);
+				builder.parser = parser;
+				parser.parse();
+				return builder.stats;
+		}
+
+		/**
+		 * Parses a diff file using the common fork join pool.
+		 *
+		 * @see #parseUnifiedDiffParallel(InputStream, Executor)
+		 */
+		public static UnifiedDiff parseUnifiedDiffParallel(InputStream stream)
+						throws IOException, UnifiedDiffParserException {
+				return parseUnifiedDiffParallel(stream, ForkJoinPool.commonPool());
+		}
+
+		/**
+		 * To parse large diff files with many files use this method. The diff file data is read
+		 * completely and split before its diff command lines into sections of some kilobytes. These
+		 * sections are parsed by the executor and put together in their original order. The result
+		 * is the same as from {@link #parseUnifiedDiff(InputStream)}.
+		 *
+		 * <p>
+		 * The default charset must encode the line terminators as single bytes, like UTF-8 or
+		 * ISO-8859-1 do.
+		 * </p>
+		 *
+		 * @param stream This is the diff file data.
+		 * @param executor runs the parsing of the sections
+		 * @return In a UnifiedDiff structure this diff file data is returned.
+		 * @throws IOException
+		 * @throws UnifiedDiffParserException
+		 */
+		public static UnifiedDiff parseUnifiedDiffParallel(InputStream stream, Executor executor)
+						throws IOException, UnifiedDiffParserException {
+				Objects.requireNonNull(executor, "executor must not be null");
+				byte[] data = readFully(stream);
+				return parseSections(data, findSections(data, 0, data.length, MIN_SECTION_SIZE), executor);
+		}
+
+		/**
+		 * Indexes a diff file using the default charset.
+		 *
+		 * @see #index(Path, Charset)
+		 */
+		public static UnifiedDiff index(Path path) throws IOException, UnifiedDiffParserException {
+				return index(path, Charset.defaultCharset());
+		}
+
+		/**
+		 * To look at a few files of a huge diff file use this method. The diff file is memory mapped
+		 * and only its header lines are parsed, the hunk lines are just counted. The patch of a
+		 * file is parsed from the mapped diff file on the first call of
+		 * {@link UnifiedDiffFile#getPatch()}, the diff file must not change until then.
+		 *
+		 * <p>
+		 * The charset must encode the line terminators as single bytes, like UTF-8 or ISO-8859-1
+		 * do.
+		 * </p>
+		 *
+		 * @param path the diff file
+		 * @param charset the charset of the diff file
+		 * @return In a UnifiedDiff structure this diff file data is returned, its patches are loaded
+		 * on demand.
+		 * @throws IOException
+		 * @throws UnifiedDiffParserException
+		 */
+		public static UnifiedDiff index(Path path, Charset charset) throws IOException, UnifiedDiffParserException {
+				Objects.requireNonNull(charset, "charset must not be null");
+				MappedFile mapped = MappedFile.map(path);
+				IndexBuilder builder = new IndexBuilder(mapped, charset);
+				UnifiedDiffReader parser = new UnifiedDiffReader(
+								new InternalUnifiedDiffReader(mapped.open(0, mapped.size()), charset), builder, true);
+				builder.parser = parser;
+				parser.parse();
+				return builder.data;
+		}
+
+		static UnifiedDiff parseSections(byte[] data, int[] sections, Executor executor)
+						throws IOException, UnifiedDiffParserException {
+				List<CompletableFuture<Section>> futures = new ArrayList<>(sections.length);
+				for (int i = 1; i < sections.length; i++) {
+						int from = sections[i];
+						int to = i + 1 < sections.length ? sections[i + 1] : data.length;
+						futures.add(CompletableFuture.supplyAsync(() -> Section.parse(data, from, to), executor));
+				}
+
+				UnifiedDiff result = new UnifiedDiff();
+				for (int i = 0; i < sections.length; i++) {
+						// the first section is parsed by the calling thread
+						Section section = i == 0
+										? Section.parse(data, sections[0], sections.length > 1 ? sections[1] : data.length)
+										: futures.get(i - 1).join();
+						// The next section was parsed from scratch. This is only right, if the sequential parser
+						// would be between two files there, otherwise this section is parsed again up to the end
+						// of the next section or, if the tail started, up to the end of the data.
+						while (section.error == null && section.incomplete && i + 1 < sections.length) {
+								i++;
+								int to = i + 1 < sections.length ? sections[i + 1] : data.length;
+								section = Section.parse(data, section.from, to);
+						}
+						if (section.error == null && section.tailStarted && i + 1 < sections.length) {
+								i = sections.length - 1;
+								section = Section.parse(data, section.from, data.length);
+						}
+						if (section.error instanceof IOException) {
+								throw (IOException) section.error;
+						} else if (section.error != null) {
+								throw (RuntimeException) section.error;
+						}
+
+						UnifiedDiff part = section.builder.data;
+						if (part.getHeader() != null) {
+								result.setHeader(part.getHeader());
+						}
+						for (UnifiedDiffFile file : part.getFiles()) {
+								result.addFile(file);
+						}
+						if (part.getTail() != null) {
+								result.setTailTxt(part.getTail());
+						}
+				}
+				return result;
+		}
+
+		/**
+		 * Finds the starts of sections, that can be parsed separately. A section starts with a diff
+		 * command line, that follows a hunk line, and the section before contains a chunk header and
+		 * is at least minSectionSize bytes long.
+		 *
+		 * @return the starts of the sections, the first one is from
+		 */
+		static int[] findSections(byte[] data, int from, int to, int minSectionSize) {
+				int[] starts = new int[16];
+				int count = 0;
+				starts[count++] = from;
+				boolean chunkSeen = false;
+				boolean afterHunkLine = false;
+				int pos = from;
+				while (pos < to) {
+						int lineStart = pos;
+						while (pos < to && data[pos] != '\n' && data[pos] != '\r') {
+								pos++;
+						}
+						int lineEnd = pos;
+						if (pos < to) {
+								pos += data[pos] == '\r' && pos + 1 < to && data[pos + 1] == '\n' ? 2 : 1;
+						}
+
+						if (afterHunkLine
+										&& chunkSeen
+										&& lineStart - starts[count - 1] >= minSectionSize
+										&& startsWithKeyword(data, lineStart, lineEnd, "diff")) {
+								if (count == starts.length) {
+										starts = Arrays.copyOf(starts, count * 2);
+								}
+								starts[count++] = lineStart;
+								chunkSeen = false;
+						}
+						byte first = lineStart < lineEnd ? data[lineStart] : 0;
+						if (first == '@' && lineStart + 1 < lineEnd && data[lineStart + 1] == '@') {
+								chunkSeen = true;
+						}
+						afterHunkLine = (first == ' ' || first == '+' || first == '-' || first == '\\')
+										&& !startsWithKeyword(data, lineStart, lineEnd, "---")
+										&& !startsWithKeyword(data, lineStart, lineEnd, "+++");
+				}
+				return Arrays.copyOf(starts, count);
+		}
+
+		/**
+		 * @return true if the line starts with the keyword followed by whitespace
+		 */
+		private static boolean startsWithKeyword(byte[] data, int lineStart, int lineEnd, String keyword) {
+				int length = keyword.length();
+				if (lineEnd - lineStart <= length) {
 						return false;
 				}
+				for (int i = 0; i < length; i++) {
+						if (data[lineStart + i] != keyword.charAt(i)) {
+								return false;
+						}
+				}
+				return isWhitespace((char) data[lineStart + length]);
+		}
+
+		private static byte[] readFully(InputStream stream) throws IOException {
+				byte[] data = new byte[64 * 1024];
+				int length = 0;
+				int count;
+				while ((count = stream.read(data, length, data.length - length)) >= 0) {
+						length += count;
+						if (length == data.length) {
+								data = Arrays.copyOf(data, data.length * 2);
+						}
+				}
+				return length == data.length ? data : Arrays.copyOf(data, length);
+		}
+
+		/**
+		 * The result of parsing a part of a diff file.
+		 */
+		private static final class Section {
+
+				private final int from;
+				private final TreeBuilder builder = new TreeBuilder();
+				private boolean incomplete;
+				private boolean tailStarted;
+				private Exception error;
+
+				private Section(int from) {
+						this.from = from;
+				}
+
+				static Section parse(byte[] data, int from, int to) {
+						Section section = new Section(from);
+						UnifiedDiffReader parser = new UnifiedDiffReader(
+										new InternalUnifiedDiffReader(
+														new ByteArrayInputStream(data, from, to - from), Charset.defaultCharset()),
+										section.builder,
+										false);
+						try {
+								parser.parse();
+						} catch (IOException | RuntimeException e) {
+								section.error = e;
+						}
+						section.incomplete = parser.incomplete;
+						section.tailStarted = parser.tailStarted;
+						return section;
+				}
+		}
+
+		/**
+		 * Finds the rule of a file header line. Only the rules starting with the first character
+		 * of the line are tried.
+		 *
+		 * @return the matching rule or null
+		 */
+		private UnifiedDiffLine findFileRule(String line) {
+				if (line.isEmpty()) {
+						return null;
+				}
+				switch (line.charAt(0)) {
+						case 'd':
+								return findValidRule(line, DIFF_COMMAND, DELETED_FILE_MODE);
+						case 's':
+								return findValidRule(line, SIMILARITY_INDEX);
+						case 'i':
+								return findValidRule(line, INDEX);
+						case '-':
+								return findValidRule(line, FROM_FILE);
+						case '+':
+								return findValidRule(line, TO_FILE);
+						case 'r':
+								return findValidRule(line, RENAME_FROM, RENAME_TO);
+						case 'c':
+								return findValidRule(line, COPY_FROM, COPY_TO);
+						case 'n':
+								return findValidRule(line, NEW_FILE_MODE, NEW_MODE);
+						case 'o':
+								return findValidRule(line, OLD_MODE);
+						case 'B':
+								return findValidRule(line, BINARY_ADDED, BINARY_DELETED, BINARY_EDITED);
+						default:
+								return null;
+				}
+		}
+
+		private static UnifiedDiffLine findValidRule(String line, UnifiedDiffLine... rules) {
 				for (UnifiedDiffLine rule : rules) {
-						if (rule.processLine(line)) {
-								LOG.fine("  >>> processed rule " + rule.toString());
-								return true;
+						if (rule.validLine(line)) {
+								if (LOG.isLoggable(Level.FINE)) {
+										LOG.fine("  >>> accepted rule " + rule);
+								}
+								return rule;
 						}
 				}
-				LOG.warning("  >>> no rule matched " + line);
-				return false;
-				// throw new UnifiedDiffParserException("parsing error at line " + line);
+				return null;
 		}
 
-		private boolean validLine(String line, UnifiedDiffLine... rules) {
+		private boolean processDataLine(String line) throws UnifiedDiffParserException {
 				if (line == null) {
 						return false;
 				}
-				for (UnifiedDiffLine rule : rules) {
-						if (rule.validLine(line)) {
-								LOG.fine("  >>> accepted rule " + rule.toString());
-								return true;
+				char first = line.isEmpty() ? 0 : line.charAt(0);
+				lastLineType = first;
+				if (first == '+') {
+						newLineCount++;
+						insertedLines++;
+						if (reportsLines()) {
+								handler.onLine(LineType.INSERT, line.substring(1));
+						}
+				} else if (first == '-') {
+						oldLineCount++;
+						deletedLines++;
+						if (reportsLines()) {
+								handler.onLine(LineType.DELETE, line.substring(1));
 						}
+				} else if (isWhitespace(first)) {
+						oldLineCount++;
+						newLineCount++;
+						if (reportsLines()) {
+								handler.onLine(LineType.CONTEXT, line.substring(1));
+						}
+				} else {
+						LOG.log(Level.WARNING, "  >>> no rule matched {0}", line);
+						return false;
 				}
-				return false;
+				return true;
+		}
+
+		private boolean reportsLines() {
+				return !skipLines && !skipFile;
 		}
 
-		private void initFileIfNecessary() {
-				if (!originalTxt.isEmpty() || !revisedTxt.isEmpty()) {
-						throw new IllegalStateException();
+		/**
+		 * The path a file filter is tested with: the new file name or the old one for deleted
+		 * files.
+		 */
+		static String filterPath(UnifiedDiffFile file) {
+				String path = file.getToFile();
+				return path == null || "/dev/null".equals(path) ? file.getFromFile() : path;
+		}
+
+		/**
+		 * Counts and skips the next line, if it is a data line, without decoding it.
+		 *
+		 * @return false if the line has to be read
+		 */
+		private boolean skipDataLine() throws IOException {
+				int first = READER.peek();
+				if (first == '+') {
+						newLineCount++;
+						insertedLines++;
+				} else if (first == '-') {
+						oldLineCount++;
+						deletedLines++;
+				} else if (first == ' ' || first == '\t' || first == 0x0B || first == '\f') {
+						oldLineCount++;
+						newLineCount++;
+				} else {
+						return false;
+				}
+				lastLineType = first;
+				READER.skipLine();
+				return true;
+		}
+
+		static boolean isChunkHeader(String line) {
+				return scanChunkHeader(line, null);
+		}
+
+		/**
+		 * Scans a chunk header like {@code @@ -1,5 +1,6 @@} without using
+		 * {@link #UNIFIED_DIFF_CHUNK_REGEXP}, but accepting exactly the same lines.
+		 *
+		 * @param values if not null it receives old line, old size, new line and new size,
+		 * missing sizes are 1
+		 * @return true if the line starts with a chunk header
+		 */
+		static boolean scanChunkHeader(String line, int[] values) {
+				if (!line.startsWith("@@")) {
+						return false;
 				}
-				actualFile = null;
-				if (actualFile == null) {
-						actualFile = new UnifiedDiffFile();
-						data.addFile(actualFile);
+				int pos = skipWhitespace(line, 2);
+				if (pos == 2 || pos == line.length() || line.charAt(pos) != '-') {
+						return false;
 				}
+				int end = scanRange(line, pos + 1, values, 0);
+				if (end < 0) {
+						return false;
+				}
+				pos = skipWhitespace(line, end);
+				if (pos == end || pos == line.length() || line.charAt(pos) != '+') {
+						return false;
+				}
+				end = scanRange(line, pos + 1, values, 2);
+				if (end < 0) {
+						return false;
+				}
+				pos = skipWhitespace(line, end);
+				return pos > end && line.startsWith("@@", pos);
+		}
+
+		private static int scanRange(String line, int start, int[] values, int offset) {
+				int end = skipDigits(line, start);
+				if (end == start) {
+						return -1;
+				}
+				if (values != null) {
+						values[offset] = parseInt(line, start, end);
+						values[offset + 1] = 1;
+				}
+				if (end < line.length() && line.charAt(end) == ',') {
+						int sizeEnd = skipDigits(line, end + 1);
+						if (sizeEnd == end + 1) {
+								return -1;
+						}
+						if (values != null) {
+								values[offset + 1] = parseInt(line, end + 1, sizeEnd);
+						}
+						end = sizeEnd;
+				}
+				return end;
+		}
+
+		private static int skipWhitespace(String line, int start) {
+				int pos = start;
+				while (pos < line.length() && isWhitespace(line.charAt(pos))) {
+						pos++;
+				}
+				return pos;
+		}
+
+		private static int skipDigits(String line, int start) {
+				int pos = start;
+				while (pos < line.length() && line.charAt(pos) >= '0' && line.charAt(pos) <= '9') {
+						pos++;
+				}
+				return pos;
+		}
+
+		private static int parseInt(String line, int start, int end) {
+				if (end - start > 9) {
+						return Integer.parseInt(line.substring(start, end));
+				}
+				int value = 0;
+				for (int i = start; i < end; i++) {
+						value = value * 10 + line.charAt(i) - '0';
+				}
+				return value;
+		}
+
+		/**
+		 * Whitespace as defined by {@code \\s} of regular expressions.
+		 */
+		private static boolean isWhitespace(char ch) {
+				return ch == ' ' || ch == '\t' || ch == '\n' || ch == 0x0B || ch == '\f' || ch == '\r';
+		}
+
+		private void startFile() {
+				skipFile = fileFilter != null && !fileFilter.test(filterPath(actualFile));
+				if (!skipFile) {
+						handler.onFileStart(actualFile);
+				}
+		}
+
+		private void initFileIfNecessary() throws UnifiedDiffParserException {
+				if (actualFile != null && !skipFile) {
+						handler.onFileEnd(actualFile);
+				}
+				actualFile = new UnifiedDiffFile();
+				fileStart = READER.lastLineStart();
+				insertedLines = 0;
+				deletedLines = 0;
 		}
 
 		private void processDiff(MatchResult match, String line) {
 				// initFileIfNecessary();
 				LOG.log(Level.FINE, "start {0}", line);
-				String[] fromTo = parseFileNames(READER.lastLine());
+				String[] fromTo = parseFileNames(line);
 				actualFile.setFromFile(fromTo[0]);
 				actualFile.setToFile(fromTo[1]);
 				actualFile.setDiffCommand(line);
@@ -287,63 +802,42 @@ public final class UnifiedDiffReader {
 				actualFile.setSimilarityIndex(Integer.valueOf(match.group(1)));
 		}
 
-		private List<String> originalTxt = new ArrayList<>();
-		private List<String> revisedTxt = new ArrayList<>();
-		private List<Integer> addLineIdxList = new ArrayList<>();
-		private List<Integer> delLineIdxList = new ArrayList<>();
+		// hunk lines are only counted, not decoded and not reported to the handler
+		private final boolean skipLines;
+		// files whose path is rejected are not reported to the handler at all
+		private Predicate<String> fileFilter;
+		private boolean skipFile;
+		// the stream positions of the first and after the last line of the actual file
+		private long fileStart;
+		private long fileEnd;
+		// the inserted and deleted lines of the actual file
+		private int insertedLines;
+		private int deletedLines;
+		// the input ended within the file header lines or a hunk
+		private boolean incomplete;
+		// a line starting with -- ended the files, the following lines are the tail
+		private boolean tailStarted;
 		private int old_ln;
 		private int old_size;
 		private int new_ln;
 		private int new_size;
-		private int delLineIdx = 0;
-		private int addLineIdx = 0;
-
-		private void finalizeChunk() {
-				if (!originalTxt.isEmpty() || !revisedTxt.isEmpty()) {
-						actualFile
-										.getPatch()
-										.addDelta(new ChangeDelta<>(
-														new Chunk<>(old_ln - 1, originalTxt, delLineIdxList),
-														new Chunk<>(new_ln - 1, revisedTxt, addLineIdxList)));
-						old_ln = 0;
-						new_ln = 0;
-						originalTxt.clear();
-						revisedTxt.clear();
-						addLineIdxList.clear();
-						delLineIdxList.clear();
-						delLineIdx = 0;
-						addLineIdx = 0;
-				}
-		}
-
-		private void processNormalLine(MatchResult match, String line) {
-				String cline = line.substring(1);
-				originalTxt.add(cline);
-				revisedTxt.add(cline);
-				delLineIdx++;
-				addLineIdx++;
-		}
-
-		private void processAddLine(MatchResult match, String line) {
-				String cline = line.substring(1);
-				revisedTxt.add(cline);
-				addLineIdx++;
-				addLineIdxList.add(new_ln - 1 + addLineIdx);
-		}
-
-		private void processDelLine(MatchResult match, String line) {
-				String cline = line.substring(1);
-				originalTxt.add(cline);
-				delLineIdx++;
-				delLineIdxList.add(old_ln - 1 + delLineIdx);
-		}
-
-		private void processChunk(MatchResult match, String chunkStart) {
-				// finalizeChunk();
-				old_ln = toInteger(match, 1, 1);
-				old_size = toInteger(match, 2, 1);
-				new_ln = toInteger(match, 3, 1);
-				new_size = toInteger(match, 4, 1);
+		private int oldLineCount;
+		private int newLineCount;
+		// the first character of the last data line, a no newline marker refers to its sides
+		private int lastLineType;
+		private final int[] chunkValues = new int[4];
+
+		private void processChunk(String chunkStart) throws UnifiedDiffParserException {
+				scanChunkHeader(chunkStart, chunkValues);
+				old_ln = chunkValues[0];
+				old_size = chunkValues[1];
+				new_ln = chunkValues[2];
+				new_size = chunkValues[3];
+				oldLineCount = 0;
+				newLineCount = 0;
+				if (!skipFile) {
+						handler.onHunk(old_ln, old_size, new_ln, new_size);
+				}
 				if (old_ln == 0) {
 						old_ln = 1;
 				}
@@ -352,10 +846,6 @@ public final class UnifiedDiffReader {
 				}
 		}
 
-		private static Integer toInteger(MatchResult match, int group, int defValue) throws NumberFormatException {
-				return Integer.valueOf(Objects.toString(match.group(group), "" + defValue));
-		}
-
 		private void processIndex(MatchResult match, String line) {
 				// initFileIfNecessary();
 				LOG.log(Level.FINE, "index {0}", line);
@@ -421,54 +911,214 @@ public final class UnifiedDiffReader {
 		}
 
 		private String extractFileName(String _line) {
-				Matcher matcher = TIMESTAMP_REGEXP.matcher(_line);
 				String line = _line;
-				if (matcher.find()) {
+				Matcher matcher = findTimestamp(line);
+				if (matcher != null) {
 						line = line.substring(0, matcher.start());
 				}
 				line = line.split("\t")[0];
-				return line.substring(4).replaceFirst("^(a|b|old|new)/", "").trim();
+				return FILE_NAME_PREFIX_REGEXP
+								.matcher(line.substring(4))
+								.replaceFirst("")
+								.trim();
 		}
 
 		private String extractTimestamp(String line) {
+				Matcher matcher = findTimestamp(line);
+				return matcher != null ? matcher.group() : null;
+		}
+
+		private static Matcher findTimestamp(String line) {
+				// a timestamp always contains a colon, most file lines do not
+				if (line.indexOf(':') < 0) {
+						return null;
+				}
 				Matcher matcher = TIMESTAMP_REGEXP.matcher(line);
-				if (matcher.find()) {
-						return matcher.group();
+				return matcher.find() ? matcher : null;
+		}
+
+		/**
+		 * Builds the {@link UnifiedDiff} from the parsing events.
+		 */
+		private static final class TreeBuilder implements UnifiedDiffHandler {
+
+				private final UnifiedDiff data = new UnifiedDiff();
+				// applies each completed file, if set
+				private PatchApplier applier;
+				private UnifiedDiffFile actualFile;
+				private List<String> originalTxt = new ArrayList<>();
+				private List<String> revisedTxt = new ArrayList<>();
+				private int[] addLineIdxList = new int[16];
+				private int[] delLineIdxList = new int[16];
+				private int addLineIdxCount = 0;
+				private int delLineIdxCount = 0;
+				private int old_ln;
+				private int new_ln;
+				private int delLineIdx = 0;
+				private int addLineIdx = 0;
+
+				@Override
+				public void onHeader(String header) {
+						data.setHeader(header);
+				}
+
+				@Override
+				public void onFileStart(UnifiedDiffFile file) {
+						actualFile = file;
+						data.addFile(file);
+				}
+
+				@Override
+				public void onHunk(int oldStart, int oldSize, int newStart, int newSize) {
+						old_ln = oldStart == 0 ? 1 : oldStart;
+						new_ln = newStart == 0 ? 1 : newStart;
+				}
+
+				@Override
+				public void onLine(LineType type, String text) {
+						switch (type) {
+								case CONTEXT:
+										originalTxt.add(text);
+										revisedTxt.add(text);
+										delLineIdx++;
+										addLineIdx++;
+										break;
+								case INSERT:
+										revisedTxt.add(text);
+										addLineIdx++;
+										if (addLineIdxCount == addLineIdxList.length) {
+												addLineIdxList = Arrays.copyOf(addLineIdxList, addLineIdxCount * 2);
+										}
+										addLineIdxList[addLineIdxCount++] = new_ln - 1 + addLineIdx;
+										break;
+								default:
+										originalTxt.add(text);
+										delLineIdx++;
+										if (delLineIdxCount == delLineIdxList.length) {
+												delLineIdxList = Arrays.copyOf(delLineIdxList, delLineIdxCount * 2);
+										}
+										delLineIdxList[delLineIdxCount++] = old_ln - 1 + delLineIdx;
+						}
+				}
+
+				@Override
+				public void onHunkEnd() {
+						if (!originalTxt.isEmpty() || !revisedTxt.isEmpty()) {
+								actualFile
+												.getPatch()
+												.addDelta(new ChangeDelta<>(
+																Chunk.owning(old_ln - 1, originalTxt, Arrays.copyOf(delLineIdxList, delLineIdxCount)),
+																Chunk.owning(new_ln - 1, revisedTxt, Arrays.copyOf(addLineIdxList, addLineIdxCount))));
+								originalTxt = new ArrayList<>();
+								revisedTxt = new ArrayList<>();
+								addLineIdxCount = 0;
+								delLineIdxCount = 0;
+								delLineIdx = 0;
+								addLineIdx = 0;
+						}
+				}
+
+				@Override
+				public void onFileEnd(UnifiedDiffFile file) {
+						if (applier != null) {
+								applier.submit(file);
+						}
+				}
+
+				@Override
+				public void onTail(String tail) {
+						data.setTailTxt(tail);
 				}
-				return null;
 		}
 
-		final class UnifiedDiffLine {
+		/**
+		 * Builds a {@link UnifiedDiff} whose files load their patches from the mapped diff file.
+		 */
+		private static final class IndexBuilder implements UnifiedDiffHandler {
 
-				private final Pattern pattern;
-				private final BiConsumer<MatchResult, String> command;
-				private final boolean stopsHeaderParsing;
+				private final UnifiedDiff data = new UnifiedDiff();
+				private final MappedFile mapped;
+				private final Charset charset;
+				private UnifiedDiffReader parser;
 
-				public UnifiedDiffLine(String pattern, BiConsumer<MatchResult, String> command) {
-						this(false, pattern, command);
+				IndexBuilder(MappedFile mapped, Charset charset) {
+						this.mapped = mapped;
+						this.charset = charset;
 				}
 
-				public UnifiedDiffLine(boolean stopsHeaderParsing, String pattern, BiConsumer<MatchResult, String> command) {
-						this.pattern = Pattern.compile(pattern);
-						this.command = command;
-						this.stopsHeaderParsing = stopsHeaderParsing;
+				@Override
+				public void onHeader(String header) {
+						data.setHeader(header);
+				}
+
+				@Override
+				public void onFileStart(UnifiedDiffFile file) {
+						data.addFile(file);
 				}
 
+				@Override
+				public void onFileEnd(UnifiedDiffFile file) {
+						long from = parser.fileStart;
+						long to = parser.fileEnd;
+						file.setPatchLoader(() -> loadPatch(from, to));
+				}
+
+				@Override
+				public void onTail(String tail) {
+						data.setTailTxt(tail);
+				}
+
+				private Patch<String> loadPatch(long from, long to) {
+						TreeBuilder builder = new TreeBuilder();
+						try {
+								new UnifiedDiffReader(new InternalUnifiedDiffReader(mapped.open(from, to), charset), builder, false)
+												.parse();
+						} catch (IOException e) {
+								throw new UnifiedDiffParserException("patch could not be loaded", e);
+						}
+						List<UnifiedDiffFile> files = builder.data.getFiles();
+						return files.isEmpty() ? new Patch<>() : files.get(0).getPatch();
+				}
+		}
+
+		/**
+		 * Collects the line counts of the files.
+		 */
+		private static final class StatsBuilder implements UnifiedDiffHandler {
+
+				private final UnifiedDiffStats stats = new UnifiedDiffStats();
+				private UnifiedDiffReader parser;
+
+				@Override
+				public void onFileEnd(UnifiedDiffFile file) {
+						stats.add(file, parser.insertedLines, parser.deletedLines);
+				}
+		}
+
+		final class UnifiedDiffLine {
+
+				private final Pattern pattern;
+				private final Matcher matcher;
+				private final BiConsumer<MatchResult, String> command;
+				private final boolean stopsHeaderParsing;
+
 				public UnifiedDiffLine(boolean stopsHeaderParsing, Pattern pattern, BiConsumer<MatchResult, String> command) {
 						this.pattern = pattern;
+						this.matcher = pattern.matcher("");
 						this.command = command;
 						this.stopsHeaderParsing = stopsHeaderParsing;
 				}
 
 				public boolean validLine(String line) {
-						Matcher m = pattern.matcher(line);
-						return m.find();
+						return matcher.reset(line).find();
 				}
 
 				public boolean processLine(String line) throws UnifiedDiffParserException {
-						Matcher m = pattern.matcher(line);
-						if (m.find()) {
-								command.accept(m.toMatchResult(), line);
+						if (matcher.reset(line).find()) {
+								command.accept(matcher, line);
+								if (LOG.isLoggable(Level.FINE)) {
+										LOG.fine("  >>> processed rule " + this);
+								}
 								return true;
 						} else {
 								return false;
@@ -485,22 +1135,3 @@ public final class UnifiedDiffReader {
 				}
 		}
 }
-
-class InternalUnifiedDiffReader extends BufferedReader {
-
-		private String lastLine;
-
-		public InternalUnifiedDiffReader(Reader reader) {
-				super(reader);
-		}
-
-		@Override
-		public String readLine() throws IOException {
-				lastLine = super.readLine();
-				return lastLine();
-		}
-
-		String lastLine() {
-				return lastLine;
-		}
-}
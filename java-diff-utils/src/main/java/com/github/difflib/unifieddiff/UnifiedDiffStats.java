@@ -0,0 +1,198 @@
+/*
+ * Copyright 2026 java-diff-utils.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.difflib.unifieddiff;
+
+import com.github.difflib.patch.AbstractDelta;
+import com.github.difflib.patch.Chunk;
+import com.github.difflib.patch.DeltaType;
+import com.github.difflib.patch.Patch;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The number of inserted and deleted lines per file of a diff, like {@code git diff --numstat}
+ * shows them.
+ */
+public final class UnifiedDiffStats {
+
+		private final List<FileStats> files = new ArrayList<>();
+		private int insertedLines;
+		private int deletedLines;
+
+		UnifiedDiffStats() {}
+
+		/**
+		 * Counts the lines of a diff file. Only the first character of the hunk lines is looked at,
+		 * no patches are built.
+		 *
+		 * @param stream This is the diff file data.
+		 * @return the statistics of all files
+		 * @throws IOException
+		 * @throws UnifiedDiffParserException
+		 */
+		public static UnifiedDiffStats compute(InputStream stream) throws IOException, UnifiedDiffParserException {
+				return UnifiedDiffReader.computeStats(stream);
+		}
+
+		/**
+		 * Counts the lines of a parsed diff.
+		 *
+		 * @param diff the diff
+		 * @return the statistics of all files
+		 */
+		public static UnifiedDiffStats compute(UnifiedDiff diff) {
+				UnifiedDiffStats stats = new UnifiedDiffStats();
+				for (UnifiedDiffFile file : diff.getFiles()) {
+						FileStats patchStats = compute(file.getPatch());
+						stats.add(file, patchStats.insertedLines, patchStats.deletedLines);
+				}
+				return stats;
+		}
+
+		/**
+		 * Counts the lines of a patch. The file names of the result are null.
+		 *
+		 * @param patch the patch
+		 * @return the statistics of the patch
+		 */
+		public static FileStats compute(Patch<?> patch) {
+				int inserted = 0;
+				int deleted = 0;
+				for (AbstractDelta<?> delta : patch.getDeltas()) {
+						if (delta.getType() != DeltaType.EQUAL) {
+								inserted += changedLines(delta.getTarget());
+								deleted += changedLines(delta.getSource());
+						}
+				}
+				return new FileStats(null, inserted, deleted);
+		}
+
+		/**
+		 * Parsed unified diffs keep the context lines within their chunks and mark the changed lines
+		 * by their positions.
+		 */
+		private static int changedLines(Chunk<?> chunk) {
+				int count = chunk.getChangePositionCount();
+				return count >= 0 ? count : chunk.size();
+		}
+
+		void add(UnifiedDiffFile file, int inserted, int deleted) {
+				files.add(new FileStats(file, inserted, deleted));
+				insertedLines += inserted;
+				deletedLines += deleted;
+		}
+
+		public List<FileStats> getFiles() {
+				return Collections.unmodifiableList(files);
+		}
+
+		public int getInsertedLines() {
+				return insertedLines;
+		}
+
+		public int getDeletedLines() {
+				return deletedLines;
+		}
+
+		/**
+		 * The line counts of one file.
+		 */
+		public static final class FileStats {
+
+				private final String fromFile;
+				private final String toFile;
+				private final boolean renamed;
+				private final boolean copied;
+				private final boolean binary;
+				private final int insertedLines;
+				private final int deletedLines;
+
+				FileStats(UnifiedDiffFile file, int insertedLines, int deletedLines) {
+						this.insertedLines = insertedLines;
+						this.deletedLines = deletedLines;
+						if (file == null) {
+								fromFile = null;
+								toFile = null;
+								renamed = false;
+								copied = false;
+								binary = false;
+						} else {
+								renamed = file.getRenameFrom() != null;
+								copied = file.getCopyFrom() != null;
+								if (renamed) {
+										fromFile = file.getRenameFrom();
+										toFile = file.getRenameTo();
+								} else if (copied) {
+										fromFile = file.getCopyFrom();
+										toFile = file.getCopyTo();
+								} else {
+										fromFile = file.getFromFile();
+										toFile = file.getToFile();
+								}
+								binary = file.getBinaryAdded() != null
+												|| file.getBinaryDeleted() != null
+												|| file.getBinaryEdited() != null;
+						}
+				}
+
+				public String getFromFile() {
+						return fromFile;
+				}
+
+				public String getToFile() {
+						return toFile;
+				}
+
+				/**
+				 * @return the new file name or the old one for deleted files
+				 */
+				public String getPath() {
+						return toFile == null || "/dev/null".equals(toFile) ? fromFile : toFile;
+				}
+
+				public boolean isRenamed() {
+						return renamed;
+				}
+
+				public boolean isCopied() {
+						return copied;
+				}
+
+				/**
+				 * @return true for binary files, their line counts are 0
+				 */
+				public boolean isBinary() {
+						return binary;
+				}
+
+				public int getInsertedLines() {
+						return insertedLines;
+				}
+
+				public int getDeletedLines() {
+						return deletedLines;
+				}
+
+				@Override
+				public String toString() {
+						return (binary ? "-\t-" : insertedLines + "\t" + deletedLines) + "\t"
+										+ (renamed || copied ? fromFile + " => " + toFile : getPath());
+				}
+		}
+}
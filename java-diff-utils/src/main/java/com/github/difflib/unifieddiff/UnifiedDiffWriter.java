@@ -16,15 +16,17 @@
 package com.github.difflib.unifieddiff;
 
 import com.github.difflib.patch.AbstractDelta;
+import java.io.BufferedWriter;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
 import java.io.Writer;
+import java.nio.charset.Charset;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
 import java.util.function.Consumer;
 import java.util.function.Function;
-import java.util.logging.Level;
-import java.util.logging.Logger;
 
 /**
  * @todo use an instance to store contextSize and originalLinesProvider.
@@ -32,33 +34,106 @@ import java.util.logging.Logger;
  */
 public class UnifiedDiffWriter {
 
-		private static final Logger LOG = Logger.getLogger(UnifiedDiffWriter.class.getName());
-
 		public static void write(
 						UnifiedDiff diff, Function<String, List<String>> originalLinesProvider, Writer writer, int contextSize)
 						throws IOException {
-				Objects.requireNonNull(originalLinesProvider, "original lines provider needs to be specified");
+				write(diff, originalLinesProvider, (Appendable) writer, contextSize);
+		}
+
+		/**
+		 * Writes the diff directly to the appendable, each line terminated by a line feed. The hunk
+		 * lines are appended prefix by prefix and line by line, without building them as strings
+		 * first.
+		 *
+		 * @param diff the diff to write
+		 * @param originalLinesProvider returns the lines of the original file for a file name, used for
+		 * the context lines
+		 * @param out receives the diff text
+		 * @param contextSize the number of context lines around the changes
+		 * @throws IOException if the appendable fails
+		 */
+		public static void write(
+						UnifiedDiff diff, Function<String, List<String>> originalLinesProvider, Appendable out, int contextSize)
+						throws IOException {
+				writeWithLineSource(diff, lineSources(originalLinesProvider), out, contextSize);
+		}
+
+		/**
+		 * Writes the diff directly to the appendable like
+		 * {@link #write(UnifiedDiff, Function, Appendable, int)}, but reads only the context lines of
+		 * the original files from their line sources.
+		 *
+		 * @param diff the diff to write
+		 * @param originalLineSourceProvider returns the lines of the original file for a file name,
+		 * e.g. by {@link LineSource#of(java.nio.file.Path, Charset)}
+		 * @param out receives the diff text
+		 * @param contextSize the number of context lines around the changes
+		 * @throws IOException if the appendable or a line source fails
+		 */
+		public static void writeWithLineSource(
+						UnifiedDiff diff, Function<String, LineSource> originalLineSourceProvider, Appendable out, int contextSize)
+						throws IOException {
+				Objects.requireNonNull(out, "out must not be null");
 				write(
 								diff,
-								originalLinesProvider,
-								line -> {
-										try {
-												writer.append(line).append("\n");
-										} catch (IOException ex) {
-												LOG.log(Level.SEVERE, null, ex);
-										}
-								},
+								originalLineSourceProvider,
+								(prefix, text) -> out.append(prefix).append(text).append('\n'),
 								contextSize);
 		}
 
+		/**
+		 * Writes the diff encoded by the charset to the stream. The stream is flushed but not closed.
+		 *
+		 * @see #write(UnifiedDiff, Function, Appendable, int)
+		 */
+		public static void write(
+						UnifiedDiff diff,
+						Function<String, List<String>> originalLinesProvider,
+						OutputStream out,
+						Charset charset,
+						int contextSize)
+						throws IOException {
+				Writer writer = new BufferedWriter(new OutputStreamWriter(out, charset));
+				write(diff, originalLinesProvider, (Appendable) writer, contextSize);
+				writer.flush();
+		}
+
 		public static void write(
 						UnifiedDiff diff,
 						Function<String, List<String>> originalLinesProvider,
 						Consumer<String> writer,
 						int contextSize)
 						throws IOException {
+				write(
+								diff,
+								lineSources(originalLinesProvider),
+								(prefix, text) -> writer.accept(prefix.isEmpty() ? text : prefix + text),
+								contextSize);
+		}
+
+		private static Function<String, LineSource> lineSources(Function<String, List<String>> originalLinesProvider) {
+				Objects.requireNonNull(originalLinesProvider, "original lines provider needs to be specified");
+				return fileName -> LineSource.of(originalLinesProvider.apply(fileName));
+		}
+
+		/**
+		 * Receives the lines of the diff.
+		 */
+		@FunctionalInterface
+		private interface LineOutput {
+
+				void line(String prefix, String text) throws IOException;
+		}
+
+		private static void write(
+						UnifiedDiff diff,
+						Function<String, LineSource> originalLineSourceProvider,
+						LineOutput writer,
+						int contextSize)
+						throws IOException {
+				Objects.requireNonNull(originalLineSourceProvider, "original lines provider needs to be specified");
 				if (diff.getHeader() != null) {
-						writer.accept(diff.getHeader());
+						writer.line("", diff.getHeader());
 				}
 
 				for (UnifiedDiffFile file : diff.getFiles()) {
@@ -67,16 +142,15 @@ public class UnifiedDiffWriter {
 						if (!patchDeltas.isEmpty()) {
 								writeOrNothing(writer, file.getDiffCommand());
 								if (file.getIndex() != null) {
-										writer.accept("index " + file.getIndex());
+										writer.line("index ", file.getIndex());
 								}
 
-								writer.accept("--- " + (file.getFromFile() == null ? "/dev/null" : file.getFromFile()));
+								writer.line("--- ", file.getFromFile() == null ? "/dev/null" : file.getFromFile());
 
 								if (file.getToFile() != null) {
-										writer.accept("+++ " + file.getToFile());
+										writer.line("+++ ", file.getToFile());
 								}
-
-								List<String> originalLines = originalLinesProvider.apply(file.getFromFile());
+								LineSource originalLines = originalLineSourceProvider.apply(file.getFromFile());
 
 								List<AbstractDelta<String>> deltas = new ArrayList<>();
 
@@ -115,22 +189,18 @@ public class UnifiedDiffWriter {
 						}
 				}
 				if (diff.getTail() != null) {
-						writer.accept("--");
-						writer.accept(diff.getTail());
+						writer.line("", "--");
+						writer.line("", diff.getTail());
 				}
 		}
 
 		private static void processDeltas(
-						Consumer<String> writer,
-						List<String> origLines,
+						LineOutput writer,
+						LineSource origLines,
 						List<AbstractDelta<String>> deltas,
 						int contextSize,
-						boolean newFile) {
-				List<String> buffer = new ArrayList<>();
-				int origTotal = 0; // counter for total lines output from Original
-				int revTotal = 0; // counter for total lines output from Original
-				int line;
-
+						boolean newFile)
+						throws IOException {
 				AbstractDelta<String> curDelta = deltas.get(0);
 
 				int origStart;
@@ -155,72 +225,87 @@ public class UnifiedDiffWriter {
 						contextStart = 0; // clamp to the start of the file
 				}
 
-				// output the context before the first Delta
-				for (line = contextStart; line < curDelta.getSource().getPosition() && line < origLines.size(); line++) { //
-						buffer.add(" " + origLines.get(line));
-						origTotal++;
-						revTotal++;
+				// count the lines first, so the block header can be written before them
+				int origSize = origLines.size();
+				int contextEnd = Math.min(curDelta.getSource().getPosition(), origSize);
+				int context = Math.max(0, contextEnd - contextStart);
+				int origTotal = context; // counter for total lines output from Original
+				int revTotal = context; // counter for total lines output from Revised
+				AbstractDelta<String> prevDelta = null;
+				for (AbstractDelta<String> delta : deltas) {
+						if (prevDelta != null) {
+								int intermediate = Math.max(
+												0,
+												Math.min(delta.getSource().getPosition(), origSize)
+																- prevDelta.getSource().getPosition()
+																- prevDelta.getSource().size());
+								origTotal += intermediate;
+								revTotal += intermediate;
+						}
+						origTotal += delta.getSource().size();
+						revTotal += delta.getTarget().size();
+						prevDelta = delta;
 				}
+				int afterStart =
+								prevDelta.getSource().getPosition() + prevDelta.getSource().size();
+				int after = Math.max(0, Math.min(afterStart + contextSize, origSize) - afterStart);
+				origTotal += after;
+				revTotal += after;
+
+				// Create the block header, conforming to the Unified Diff standard
+				writer.line("@@ -", origStart + "," + origTotal + " +" + revStart + "," + revTotal + " @@");
+
+				// output the context before the first Delta
+				writeContext(writer, origLines, contextStart, contextEnd);
 				// output the first Delta
-				getDeltaText(txt -> buffer.add(txt), curDelta);
-				origTotal += curDelta.getSource().getLines().size();
-				revTotal += curDelta.getTarget().getLines().size();
+				writeDeltaText(writer, curDelta);
 
 				int deltaIndex = 1;
 				while (deltaIndex < deltas.size()) { // for each of the other Deltas
 						AbstractDelta<String> nextDelta = deltas.get(deltaIndex);
 						int intermediateStart = curDelta.getSource().getPosition()
 										+ curDelta.getSource().getLines().size();
-						for (line = intermediateStart;
-										line < nextDelta.getSource().getPosition() && line < origLines.size();
-										line++) {
-								// output the code between the last Delta and this one
-								buffer.add(" " + origLines.get(line));
-								origTotal++;
-								revTotal++;
-						}
-						getDeltaText(txt -> buffer.add(txt), nextDelta); // output the Delta
-						origTotal += nextDelta.getSource().getLines().size();
-						revTotal += nextDelta.getTarget().getLines().size();
+						// output the code between the last Delta and this one
+						writeContext(
+										writer,
+										origLines,
+										intermediateStart,
+										Math.min(nextDelta.getSource().getPosition(), origSize));
+						writeDeltaText(writer, nextDelta); // output the Delta
 						curDelta = nextDelta;
 						deltaIndex++;
 				}
 
 				// Now output the post-Delta context code, clamping the end of the file
-				contextStart = curDelta.getSource().getPosition()
-								+ curDelta.getSource().getLines().size();
-				for (line = contextStart; (line < (contextStart + contextSize)) && (line < origLines.size()); line++) {
-						buffer.add(" " + origLines.get(line));
-						origTotal++;
-						revTotal++;
-				}
+				writeContext(writer, origLines, afterStart, afterStart + after);
+		}
 
-				// Create and insert the block header, conforming to the Unified Diff
-				// standard
-				writer.accept("@@ -" + origStart + "," + origTotal + " +" + revStart + "," + revTotal + " @@");
-				buffer.forEach(txt -> {
-						writer.accept(txt);
-				});
+		private static void writeContext(LineOutput writer, LineSource origLines, int from, int to) throws IOException {
+				if (from < to) {
+						for (String line : origLines.range(from, to)) {
+								writer.line(" ", line);
+						}
+				}
 		}
 
 		/**
-		 * getDeltaText returns the lines to be added to the Unified Diff text from the Delta parameter.
+		 * writeDeltaText writes the lines of the Delta parameter to the Unified Diff text.
 		 *
-		 * @param writer consumer for the list of String lines of code
+		 * @param writer receives the lines of code
 		 * @param delta the Delta to output
 		 */
-		private static void getDeltaText(Consumer<String> writer, AbstractDelta<String> delta) {
+		private static void writeDeltaText(LineOutput writer, AbstractDelta<String> delta) throws IOException {
 				for (String line : delta.getSource().getLines()) {
-						writer.accept("-" + line);
+						writer.line("-", line);
 				}
 				for (String line : delta.getTarget().getLines()) {
-						writer.accept("+" + line);
+						writer.line("+", line);
 				}
 		}
 
-		private static void writeOrNothing(Consumer<String> writer, String str) throws IOException {
+		private static void writeOrNothing(LineOutput writer, String str) throws IOException {
 				if (str != null) {
-						writer.accept(str);
+						writer.line("", str);
 				}
 		}
 }
@@ -6,6 +6,7 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import com.github.difflib.algorithm.myers.MyersDiff;
 import com.github.difflib.patch.AbstractDelta;
 import com.github.difflib.patch.ChangeDelta;
 import com.github.difflib.patch.Chunk;
@@ -13,10 +14,15 @@ import com.github.difflib.patch.DeleteDelta;
 import com.github.difflib.patch.EqualDelta;
 import com.github.difflib.patch.InsertDelta;
 import com.github.difflib.patch.Patch;
+import com.github.difflib.patch.PatchFailedException;
 import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
@@ -106,6 +112,22 @@ public class DiffUtilsTest {
 				assertEquals("t", patch.getDeltas().get(1).getTarget().getLines().get(0));
 		}
 
+		@Test
+		public void testDiffInlineKeepsSurrogatePairs() {
+				// U+1F600 and U+1F601 share their high surrogate
+				final Patch<String> patch = DiffUtils.diffInline("a\uD83D\uDE00b\uD83D\uDE00", "a\uD83D\uDE01b\uD83D\uDE00c");
+				assertEquals(2, patch.getDeltas().size());
+				assertTrue(patch.getDeltas().get(0) instanceof ChangeDelta);
+				assertEquals(1, patch.getDeltas().get(0).getSource().getPosition());
+				assertEquals(
+								"\uD83D\uDE00", patch.getDeltas().get(0).getSource().getLines().get(0));
+				assertEquals(
+								"\uD83D\uDE01", patch.getDeltas().get(0).getTarget().getLines().get(0));
+				assertTrue(patch.getDeltas().get(1) instanceof InsertDelta);
+				assertEquals(6, patch.getDeltas().get(1).getSource().getPosition());
+				assertEquals("c", patch.getDeltas().get(1).getTarget().getLines().get(0));
+		}
+
 		@Test
 		public void testDiffIntegerList() {
 				List<Integer> original = Arrays.asList(1, 2, 3, 4, 5);
@@ -246,4 +268,26 @@ public class DiffUtilsTest {
 
 				assertEquals(1, patch.getDeltas().size());
 		}
+
+		@Test
+		public void testDiffReferenceLines() throws IOException, ClassNotFoundException, PatchFailedException {
+				List<String> original = Arrays.asList("aaa", "bbb", "ccc", "ddd");
+				List<String> revised = Arrays.asList("aaa", "xxx", "ccc", "ddd", "eee");
+
+				Patch<String> patch = DiffUtils.diff(original, revised, new MyersDiff<>(), null, true, true);
+
+				assertEquals(DiffUtils.diff(original, revised, true).getDeltas(), patch.getDeltas());
+				assertEquals(revised, patch.applyTo(original));
+
+				// referencing chunks are serialized with their lines materialized
+				ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+				try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+						out.writeObject(patch);
+				}
+				try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+						@SuppressWarnings("unchecked")
+						Patch<String> read = (Patch<String>) in.readObject();
+						assertEquals(patch.getDeltas(), read.getDeltas());
+				}
+		}
 }
@@ -15,14 +15,17 @@
  */
 package com.github.difflib.algorithm.myers;
 
+import static java.util.stream.Collectors.toList;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 
+import com.github.difflib.algorithm.Change;
 import com.github.difflib.algorithm.DiffAlgorithmListener;
 import com.github.difflib.patch.Patch;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Random;
 import org.junit.jupiter.api.Test;
 
 /**
@@ -75,4 +78,50 @@ public class MyersDiffTest {
 				System.out.println(logdata);
 				assertEquals(8, logdata.size());
 		}
+
+		@Test
+		public void testPrimitiveDiffComputesSameChanges() {
+				Random random = new Random(42);
+				for (int n = 0; n < 2000; n++) {
+						int[] source = random.ints(random.nextInt(20), 0, 3).toArray();
+						int[] target = random.ints(random.nextInt(20), 0, 3).toArray();
+						List<String> steps = new ArrayList<>();
+						List<String> expectedSteps = new ArrayList<>();
+
+						assertEquals(
+										describe(new MyersDiff<Integer>()
+														.computeDiff(
+																		Arrays.stream(source).boxed().collect(toList()),
+																		Arrays.stream(target).boxed().collect(toList()),
+																		stepRecorder(expectedSteps))),
+										describe(MyersDiff.computeDiff(source, target, stepRecorder(steps))));
+						assertEquals(expectedSteps, steps);
+				}
+		}
+
+		private static List<String> describe(List<Change> changes) {
+				return changes.stream()
+								.map(c -> c.deltaType + " " + c.startOriginal + "-" + c.endOriginal + " " + c.startRevised + "-"
+												+ c.endRevised)
+								.collect(toList());
+		}
+
+		private static DiffAlgorithmListener stepRecorder(List<String> steps) {
+				return new DiffAlgorithmListener() {
+						@Override
+						public void diffStart() {
+								steps.add("start");
+						}
+
+						@Override
+						public void diffStep(int value, int max) {
+								steps.add(value + "/" + max);
+						}
+
+						@Override
+						public void diffEnd() {
+								steps.add("end");
+						}
+				};
+		}
 }
@@ -1,6 +1,7 @@
 package com.github.difflib.examples;
 
 import static java.util.stream.Collectors.joining;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.fail;
 
 import com.github.difflib.TestConstants;
@@ -10,6 +11,7 @@ import java.io.FileNotFoundException;
 import java.io.FileReader;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import org.junit.jupiter.api.Test;
 
@@ -45,6 +47,31 @@ public class OriginalAndDiffTest {
 				System.out.println(originalAndDiff.stream().collect(joining("\n")));
 		}
 
+		@Test
+		public void testWriteOriginalAndDiff() throws IOException {
+				List<String> origLines = Arrays.asList("a", "b", "c", "d", "e");
+				List<String> revLines = Arrays.asList("a", "x", "c", "d", "e", "f");
+
+				StringBuilder out = new StringBuilder();
+				UnifiedDiffUtils.writeOriginalAndDiff(origLines, revLines, "orig.txt", "rev.txt", out);
+
+				List<String> expected = Arrays.asList(
+								"--- orig.txt",
+								"+++ rev.txt",
+								"@@ -0,0 +0,0 @@",
+								" a",
+								"@@ -2,1 +2,1 @@",
+								"-b",
+								"+x",
+								" c",
+								" d",
+								" e",
+								"@@ -6,0 +6,1 @@",
+								"+f");
+				assertEquals(String.join("\n", expected) + "\n", out.toString());
+				assertEquals(expected, UnifiedDiffUtils.generateOriginalAndDiff(origLines, revLines, "orig.txt", "rev.txt"));
+		}
+
 		public static List<String> fileToLines(String filename) throws FileNotFoundException, IOException {
 				List<String> lines = new ArrayList<>();
 				String line = "";
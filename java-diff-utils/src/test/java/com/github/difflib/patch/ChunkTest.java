@@ -1,7 +1,12 @@
 package com.github.difflib.patch;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.stream.Collectors;
 import org.junit.jupiter.api.Test;
@@ -31,6 +36,45 @@ class ChunkTest {
 								VerifyChunk.CONTENT_DOES_NOT_MATCH_TARGET, chunk.verifyChunk(toCharList("prefix      suffix"), 1, 7));
 		}
 
+		@Test
+		void referencingChunk() {
+				List<String> text = new ArrayList<>(Arrays.asList("a", "b", "c", "d"));
+				Chunk<String> chunk = Chunk.referencing(1, text, 1, 3);
+
+				assertEquals(Arrays.asList("b", "c"), chunk.getLines());
+				assertEquals(new Chunk<>(1, Arrays.asList("b", "c")), chunk);
+				assertEquals(2, chunk.last());
+				assertThrows(UnsupportedOperationException.class, () -> chunk.getLines().set(0, "x"));
+
+				text.set(1, "B");
+				assertEquals(Arrays.asList("B", "c"), chunk.getLines());
+		}
+
+		@Test
+		void changePositions() {
+				Chunk<String> chunk = new Chunk<>(3, Arrays.asList("a", "b", "c"), Arrays.asList(3, 5));
+
+				assertEquals(Arrays.asList(3, 5), chunk.getChangePosition());
+				assertArrayEquals(new int[] {3, 5}, chunk.getChangePositionArray());
+				assertEquals(2, chunk.getChangePositionCount());
+
+				// changes are written through like to the list the chunk used to keep
+				chunk.getChangePosition().add(1, 4);
+				chunk.getChangePosition().set(0, 2);
+				assertEquals(Arrays.asList(2, 4, 5), chunk.getChangePosition());
+				chunk.getChangePosition().remove(1);
+				assertArrayEquals(new int[] {2, 5}, chunk.getChangePositionArray());
+				assertEquals(2, chunk.getChangePositionCount());
+
+				Chunk<String> owning = Chunk.owning(3, Arrays.asList("a", "b", "c"), new int[] {4});
+				assertEquals(Arrays.asList(4), owning.getChangePosition());
+				assertEquals(chunk, owning);
+
+				assertNull(new Chunk<>(3, Arrays.asList("a")).getChangePosition());
+				assertNull(new Chunk<>(3, Arrays.asList("a")).getChangePositionArray());
+				assertEquals(-1, new Chunk<>(3, Arrays.asList("a")).getChangePositionCount());
+		}
+
 		private List<Character> toCharList(String str) {
 				return str.chars().mapToObj(x -> (char) x).collect(Collectors.toList());
 		}
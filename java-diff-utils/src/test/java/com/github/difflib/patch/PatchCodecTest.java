@@ -0,0 +1,136 @@
+package com.github.difflib.patch;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.github.difflib.DiffUtils;
+import com.github.difflib.UnifiedDiffUtils;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+public class PatchCodecTest {
+
+		@Test
+		public void testRoundTrip() throws IOException {
+				Patch<String> patch = DiffUtils.diff(
+								Arrays.asList("a", "b", "c", "d", "ä"), Arrays.asList("a", "x", "c", "ü", "e", "f"), true);
+
+				Patch<String> read = PatchCodec.read(new ByteArrayInputStream(encode(patch, false)));
+
+				assertEquals(patch.getDeltas(), read.getDeltas());
+		}
+
+		@Test
+		public void testRoundTripWithChangePositions() throws IOException, PatchFailedException {
+				List<String> original = Arrays.asList("1", "2", "3", "4", "5", "6");
+				List<String> revised = Arrays.asList("1", "two", "3", "4", "6", "7");
+				Patch<String> patch = UnifiedDiffUtils.parseUnifiedDiff(UnifiedDiffUtils.generateUnifiedDiff(
+								"original", "revised", original, DiffUtils.diff(original, revised), 1));
+
+				Patch<String> read = PatchCodec.read(new ByteArrayInputStream(encode(patch, true)));
+
+				assertEquals(patch.getDeltas(), read.getDeltas());
+				for (int i = 0; i < patch.getDeltas().size(); i++) {
+						assertEquals(
+										patch.getDeltas().get(i).getSource().getChangePosition(),
+										read.getDeltas().get(i).getSource().getChangePosition());
+						assertEquals(
+										patch.getDeltas().get(i).getTarget().getChangePosition(),
+										read.getDeltas().get(i).getTarget().getChangePosition());
+				}
+				assertEquals(revised, read.applyTo(original));
+		}
+
+		@Test
+		public void testDictionaryShrinksRepeatedLines() throws IOException {
+				List<String> original = new ArrayList<>();
+				List<String> revised = new ArrayList<>();
+				for (int i = 0; i < 100; i++) {
+						original.add("some rather long line that is repeated again and again " + (i % 3));
+						revised.add("some rather long line that was changed again and again " + (i % 3));
+				}
+				Patch<String> patch = DiffUtils.diff(original, revised);
+
+				byte[] plain = encode(patch, false);
+				byte[] withDictionary = encode(patch, true);
+
+				assertThat(withDictionary.length).isLessThan(plain.length / 10);
+				assertEquals(
+								patch.getDeltas(),
+								PatchCodec.read(new ByteArrayInputStream(withDictionary)).getDeltas());
+		}
+
+		@Test
+		public void testMultiplePatchesInOneStream() throws IOException {
+				Patch<String> first = DiffUtils.diff(Arrays.asList("a", "b"), Arrays.asList("a", "c"));
+				Patch<String> second = DiffUtils.diff(Arrays.asList("x"), Arrays.asList("y", "z"));
+				ByteArrayOutputStream out = new ByteArrayOutputStream();
+				PatchCodec.write(first, out);
+				PatchCodec.write(second, out, true);
+
+				InputStream in = new ByteArrayInputStream(out.toByteArray());
+
+				assertEquals(first.getDeltas(), PatchCodec.read(in).getDeltas());
+				assertEquals(second.getDeltas(), PatchCodec.read(in).getDeltas());
+				assertEquals(-1, in.read());
+		}
+
+		@Test
+		public void testInvalidStream() {
+				assertThrows(IOException.class, () -> PatchCodec.read(new ByteArrayInputStream("no patch".getBytes())));
+
+				byte[] data = encode(DiffUtils.diff(Arrays.asList("a"), Arrays.asList("b")), false);
+				assertThrows(
+								EOFException.class,
+								() -> PatchCodec.read(new ByteArrayInputStream(Arrays.copyOf(data, data.length - 1))));
+		}
+
+		@Test
+		public void testCorruptSizesFailWithIOException() {
+				// delta count Integer.MAX_VALUE
+				assertCorrupt(EOFException.class, 0xFF, 0xFF, 0xFF, 0xFF, 0x07);
+				// negative delta count
+				assertCorrupt(IOException.class, 0xFF, 0xFF, 0xFF, 0xFF, 0x0F);
+				// one change delta with a negative chunk position
+				assertCorrupt(IOException.class, 1, 0, 0xFF, 0xFF, 0xFF, 0xFF, 0x0F);
+				// a chunk of Integer.MAX_VALUE lines
+				assertCorrupt(EOFException.class, 1, 0, 0, 0xFF, 0xFF, 0xFF, 0xFF, 0x07);
+				// a line of Integer.MAX_VALUE bytes
+				assertCorrupt(EOFException.class, 1, 0, 0, 1, 0xFF, 0xFF, 0xFF, 0xFF, 0x07, 'a');
+				// a negative line length
+				assertCorrupt(IOException.class, 1, 0, 0, 1, 0xFF, 0xFF, 0xFF, 0xFF, 0x0F);
+				// Integer.MAX_VALUE - 1 change positions
+				assertCorrupt(EOFException.class, 1, 0, 0, 0, 0xFF, 0xFF, 0xFF, 0xFF, 0x07, 2);
+		}
+
+		private static void assertCorrupt(Class<? extends IOException> expected, int... body) {
+				byte[] data = new byte[5 + body.length];
+				data[0] = 'J';
+				data[1] = 'D';
+				data[2] = 'P';
+				data[3] = 1;
+				data[4] = 0;
+				for (int i = 0; i < body.length; i++) {
+						data[5 + i] = (byte) body[i];
+				}
+				assertThrows(expected, () -> PatchCodec.read(new ByteArrayInputStream(data)));
+		}
+
+		private static byte[] encode(Patch<String> patch, boolean useDictionary) {
+				ByteArrayOutputStream out = new ByteArrayOutputStream();
+				try {
+						PatchCodec.write(patch, out, useDictionary);
+				} catch (IOException e) {
+						throw new IllegalStateException(e);
+				}
+				return out.toByteArray();
+		}
+}
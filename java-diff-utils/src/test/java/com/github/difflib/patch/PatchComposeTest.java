@@ -0,0 +1,123 @@
+package com.github.difflib.patch;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.github.difflib.DiffUtils;
+import com.github.difflib.UnifiedDiffUtils;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+public class PatchComposeTest {
+
+		@Test
+		public void testComposeSimple() throws PatchFailedException {
+				List<String> a = Arrays.asList("a", "b", "c", "d", "e");
+				List<String> b = Arrays.asList("a", "B", "c", "d", "e", "f");
+				List<String> c = Arrays.asList("x", "a", "B", "c", "e", "f");
+
+				Patch<String> composed = Patch.compose(DiffUtils.diff(a, b), DiffUtils.diff(b, c));
+
+				assertEquals(c, composed.applyTo(a));
+				assertEquals(a, composed.restore(c));
+		}
+
+		@Test
+		public void testComposeInsertDeletedAgain() {
+				List<String> a = Arrays.asList("a", "b", "c");
+				List<String> b = Arrays.asList("a", "new", "b", "c");
+
+				Patch<String> composed = Patch.compose(DiffUtils.diff(a, b), DiffUtils.diff(b, a));
+
+				assertTrue(composed.getDeltas().isEmpty());
+		}
+
+		@Test
+		public void testComposeChangeRevertedPartially() throws PatchFailedException {
+				List<String> a = Arrays.asList("a", "b", "c", "d");
+				List<String> b = Arrays.asList("a", "X", "Y", "d");
+				List<String> c = Arrays.asList("a", "b", "Y", "d");
+
+				Patch<String> composed = Patch.compose(DiffUtils.diff(a, b), DiffUtils.diff(b, c));
+
+				assertEquals(1, composed.getDeltas().size());
+				assertEquals(DeltaType.CHANGE, composed.getDeltas().get(0).getType());
+				assertEquals(2, composed.getDeltas().get(0).getSource().getPosition());
+				assertEquals(c, composed.applyTo(a));
+		}
+
+		@Test
+		public void testComposeParsedPatchesWithContext() throws PatchFailedException {
+				List<String> a = Arrays.asList("1", "2", "3", "4", "5", "6", "7", "8", "9");
+				List<String> b = Arrays.asList("1", "2", "three", "4", "5", "6", "7", "8", "9", "10");
+				List<String> c = Arrays.asList("1", "2", "three", "4", "6", "7", "eight", "9", "10");
+
+				Patch<String> first = UnifiedDiffUtils.parseUnifiedDiff(
+								UnifiedDiffUtils.generateUnifiedDiff("a", "b", a, DiffUtils.diff(a, b), 2));
+				Patch<String> second = UnifiedDiffUtils.parseUnifiedDiff(
+								UnifiedDiffUtils.generateUnifiedDiff("b", "c", b, DiffUtils.diff(b, c), 2));
+
+				assertEquals(c, Patch.compose(first, second).applyTo(a));
+		}
+
+		@Test
+		public void testComposeIgnoresEqualDeltas() throws PatchFailedException {
+				List<String> a = Arrays.asList("a", "b", "c", "d");
+				List<String> b = Arrays.asList("a", "c", "d");
+				List<String> c = Arrays.asList("a", "c", "d", "e");
+
+				Patch<String> composed = Patch.compose(DiffUtils.diff(a, b, true), DiffUtils.diff(b, c, true));
+
+				assertEquals(2, composed.getDeltas().size());
+				assertEquals(c, composed.applyTo(a));
+		}
+
+		@Test
+		public void testComposeRandom() throws PatchFailedException {
+				Random random = new Random(4711);
+				for (int run = 0; run < 500; run++) {
+						List<String> a = randomText(random, random.nextInt(15));
+						List<String> b = mutate(random, a);
+						List<String> c = mutate(random, b);
+
+						Patch<String> composed = Patch.compose(DiffUtils.diff(a, b), DiffUtils.diff(b, c));
+
+						assertEquals(c, composed.applyTo(a), "run " + run);
+						assertEquals(a, composed.restore(c), "run " + run);
+				}
+		}
+
+		private static List<String> randomText(Random random, int size) {
+				List<String> text = new ArrayList<>();
+				for (int i = 0; i < size; i++) {
+						text.add(String.valueOf((char) ('a' + random.nextInt(4))));
+				}
+				return text;
+		}
+
+		private static List<String> mutate(Random random, List<String> text) {
+				List<String> result = new ArrayList<>(text);
+				int changes = random.nextInt(5);
+				for (int i = 0; i < changes; i++) {
+						int pos = random.nextInt(result.size() + 1);
+						switch (random.nextInt(3)) {
+								case 0:
+										result.add(pos, String.valueOf((char) ('a' + random.nextInt(4))));
+										break;
+								case 1:
+										if (pos < result.size()) {
+												result.remove(pos);
+										}
+										break;
+								default:
+										if (pos < result.size()) {
+												result.set(pos, String.valueOf((char) ('a' + random.nextInt(4))));
+										}
+						}
+				}
+				return result;
+		}
+}
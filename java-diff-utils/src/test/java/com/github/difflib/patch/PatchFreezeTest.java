@@ -0,0 +1,88 @@
+package com.github.difflib.patch;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.github.difflib.DiffUtils;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.jupiter.api.Test;
+
+public class PatchFreezeTest {
+
+		@Test
+		public void testFreeze() throws PatchFailedException {
+				List<String> original = Arrays.asList("a", "b", "c", "d");
+				List<String> revised = Arrays.asList("a", "x", "c", "e");
+				Patch<String> patch = new Patch<>();
+				// add deltas in reverse order to check sorting
+				List<AbstractDelta<String>> deltas =
+								new ArrayList<>(DiffUtils.diff(original, revised).getDeltas());
+				for (int i = deltas.size() - 1; i >= 0; i--) {
+						patch.addDelta(deltas.get(i));
+				}
+
+				Patch<String> frozen = patch.freeze();
+
+				assertFalse(patch.isFrozen());
+				assertTrue(frozen.isFrozen());
+				assertSame(frozen, frozen.freeze());
+				assertEquals(deltas, frozen.getDeltas());
+				assertEquals(revised, frozen.applyTo(original));
+				assertEquals(original, frozen.restore(revised));
+
+				assertThrows(UnsupportedOperationException.class, () -> frozen.addDelta(deltas.get(0)));
+				assertThrows(
+								UnsupportedOperationException.class, () -> frozen.getDeltas().clear());
+				assertThrows(
+								UnsupportedOperationException.class,
+								() -> frozen.withConflictOutput(Patch.CONFLICT_PRODUCES_MERGE_CONFLICT));
+
+				// the snapshot is independent of the original patch
+				patch.addDelta(new InsertDelta<>(new Chunk<>(4, new ArrayList<>()), new Chunk<>(4, Arrays.asList("f"))));
+				assertEquals(deltas.size(), frozen.getDeltas().size());
+		}
+
+		@Test
+		public void testFreezeKeepsConflictOutput() throws PatchFailedException {
+				List<String> original = Arrays.asList("aaa", "bbb", "ccc", "ddd");
+				Patch<String> frozen = DiffUtils.diff(original, Arrays.asList("aaa", "bxb", "cxc", "ddd"))
+								.withConflictOutput(Patch.CONFLICT_PRODUCES_MERGE_CONFLICT)
+								.freeze();
+
+				List<String> result = frozen.applyTo(Arrays.asList("aaa", "bbb", "CDC", "ddd"));
+
+				assertEquals("<<<<<< HEAD", result.get(1));
+		}
+
+		@Test
+		public void testConcurrentApply() throws Exception {
+				List<String> original = new ArrayList<>();
+				List<String> revised = new ArrayList<>();
+				for (int i = 0; i < 1000; i++) {
+						original.add("line " + i);
+						revised.add(i % 7 == 0 ? "changed " + i : "line " + i);
+				}
+				Patch<String> frozen = DiffUtils.diff(original, revised).freeze();
+
+				ExecutorService executor = Executors.newFixedThreadPool(4);
+				try {
+						List<Future<List<String>>> results = new ArrayList<>();
+						for (int i = 0; i < 16; i++) {
+								results.add(executor.submit(() -> frozen.applyTo(original)));
+						}
+						for (Future<List<String>> result : results) {
+								assertEquals(revised, result.get());
+						}
+				} finally {
+						executor.shutdown();
+				}
+		}
+}
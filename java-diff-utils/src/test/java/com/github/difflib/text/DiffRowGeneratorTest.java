@@ -3,12 +3,16 @@ package com.github.difflib.text;
 import static java.util.stream.Collectors.joining;
 import static java.util.stream.Collectors.toList;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import com.github.difflib.DiffUtils;
 import com.github.difflib.algorithm.myers.MyersDiffWithLinearSpace;
 import com.github.difflib.patch.AbstractDelta;
+import com.github.difflib.patch.Patch;
+import com.github.difflib.text.DiffRow.Tag;
 import com.github.difflib.text.deltamerge.DeltaMergeUtils;
 import com.github.difflib.text.deltamerge.InlineDeltaMergeInfo;
 import java.io.File;
@@ -18,9 +22,12 @@ import java.nio.file.FileSystem;
 import java.nio.file.FileSystems;
 import java.nio.file.Files;
 import java.nio.file.Paths;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.function.Function;
 import java.util.regex.Pattern;
 import org.junit.jupiter.api.Test;
@@ -901,4 +908,279 @@ public class DiffRowGeneratorTest {
 						System.out.println(rows);
 				}
 		}
+
+		@Test
+		public void testInlineDiffsOfLongLineWithManyChanges() {
+				StringBuilder original = new StringBuilder();
+				StringBuilder revised = new StringBuilder();
+				StringBuilder expected = new StringBuilder();
+				for (int i = 0; i < 5000; i++) {
+						original.append("a b ");
+						revised.append("a c ");
+						expected.append("a ~b~**c** ");
+				}
+				DiffRowGenerator generator = DiffRowGenerator.create()
+								.showInlineDiffs(true)
+								.mergeOriginalRevised(true)
+								.inlineDiffByWord(true)
+								.oldTag(f -> "~")
+								.newTag(f -> "**")
+								.build();
+
+				List<DiffRow> rows = generator.generateDiffRows(
+								Arrays.asList(original.toString(), "x"), Arrays.asList(revised.toString(), "y"));
+
+				assertEquals(2, rows.size());
+				assertEquals(expected.toString(), rows.get(0).getOldLine());
+				assertEquals("~x~**y**", rows.get(1).getOldLine());
+		}
+
+		@Test
+		public void testGenerateInlineDiffRows() {
+				DiffRowGenerator generator =
+								DiffRowGenerator.create().inlineDiffByWord(true).build();
+
+				List<InlineDiffRow> rows = generator.generateInlineDiffRows(
+								Arrays.asList("same", "the <quick> fox", "jumps", "gone"),
+								Arrays.asList("same", "the slow fox", "jumps high", "new"));
+
+				assertEquals(4, rows.size());
+				assertEquals(DiffRowGenerator.equalRow("same"), rows.get(0));
+				InlineDiffRow change = rows.get(1);
+				assertEquals(Tag.CHANGE, change.getTag());
+				assertEquals("the <quick> fox", change.getOldLine());
+				assertEquals("the slow fox", change.getNewLine());
+				assertArrayEquals(new int[] {4, 11, Tag.CHANGE.ordinal()}, change.getOldRanges());
+				assertArrayEquals(new int[] {4, 8, Tag.CHANGE.ordinal()}, change.getNewRanges());
+				assertEquals(Tag.CHANGE, InlineDiffRow.rangeTag(change.getNewRanges(), 0));
+				assertArrayEquals(new int[0], rows.get(2).getOldRanges());
+				assertArrayEquals(new int[] {5, 10, Tag.INSERT.ordinal()}, rows.get(2).getNewRanges());
+				assertArrayEquals(new int[] {0, 4, Tag.CHANGE.ordinal()}, rows.get(3).getOldRanges());
+				assertArrayEquals(new int[] {0, 3, Tag.CHANGE.ordinal()}, rows.get(3).getNewRanges());
+		}
+
+		@Test
+		public void testGenerateInlineDiffRowsSplitsRangesAtLineEnds() {
+				DiffRowGenerator generator =
+								DiffRowGenerator.create().decompressDeltas(false).build();
+
+				List<InlineDiffRow> rows =
+								generator.generateInlineDiffRows(Arrays.asList("abc", "def"), Arrays.asList("aXYf", "", "g"));
+
+				assertEquals(3, rows.size());
+				assertArrayEquals(new int[] {1, 3, Tag.CHANGE.ordinal()}, rows.get(0).getOldRanges());
+				assertArrayEquals(new int[] {0, 2, Tag.CHANGE.ordinal()}, rows.get(1).getOldRanges());
+				assertArrayEquals(new int[] {1, 3, Tag.CHANGE.ordinal()}, rows.get(0).getNewRanges());
+				assertArrayEquals(new int[0], rows.get(1).getNewRanges());
+				assertArrayEquals(new int[] {0, 1, Tag.INSERT.ordinal()}, rows.get(2).getNewRanges());
+				assertEquals("", rows.get(2).getOldLine());
+		}
+
+		@Test
+		public void testContextLines() {
+				List<String> original = new ArrayList<>();
+				for (int i = 0; i < 20; i++) {
+						original.add("line " + i);
+				}
+				List<String> revised = new ArrayList<>(original);
+				revised.set(5, "changed");
+				revised.remove(12);
+				List<String> normalized = new ArrayList<>();
+				DiffRowGenerator generator = DiffRowGenerator.create()
+								.contextLines(2)
+								.lineNormalizer(line -> {
+										normalized.add(line);
+										return line;
+								})
+								.build();
+
+				List<DiffRow> rows = generator.generateDiffRows(original, revised);
+
+				assertEquals(
+								Arrays.asList(
+												DiffRow.skip(3),
+												new DiffRow(Tag.EQUAL, "line 3", "line 3"),
+												new DiffRow(Tag.EQUAL, "line 4", "line 4"),
+												new DiffRow(Tag.CHANGE, "line 5", "changed"),
+												new DiffRow(Tag.EQUAL, "line 6", "line 6"),
+												new DiffRow(Tag.EQUAL, "line 7", "line 7"),
+												DiffRow.skip(2),
+												new DiffRow(Tag.EQUAL, "line 10", "line 10"),
+												new DiffRow(Tag.EQUAL, "line 11", "line 11"),
+												new DiffRow(Tag.DELETE, "line 12", ""),
+												new DiffRow(Tag.EQUAL, "line 13", "line 13"),
+												new DiffRow(Tag.EQUAL, "line 14", "line 14"),
+												DiffRow.skip(5)),
+								rows);
+				assertThat(normalized).doesNotContain("line 0", "line 8", "line 9", "line 19");
+				assertEquals(3, rows.get(0).getSkippedLines());
+		}
+
+		@Test
+		public void testContextLinesWithoutChanges() {
+				DiffRowGenerator generator = DiffRowGenerator.create().contextLines(0).build();
+
+				assertEquals(
+								Collections.singletonList(DiffRow.skip(2)),
+								generator.generateDiffRows(Arrays.asList("a", "b"), Arrays.asList("a", "b")));
+		}
+
+		@Test
+		public void testStreamDiffRows() {
+				List<String> original = Arrays.asList("a", "b", "c", "d", "e", "f");
+				List<String> revised = Arrays.asList("a", "x", "c", "d", "f", "g");
+				List<String> normalized = new ArrayList<>();
+				DiffRowGenerator generator = DiffRowGenerator.create()
+								.showInlineDiffs(true)
+								.lineNormalizer(line -> {
+										normalized.add(line);
+										return line;
+								})
+								.build();
+				Patch<String> patch = DiffUtils.diff(original, revised);
+
+				List<DiffRow> expected = generator.generateDiffRows(original, patch);
+				normalized.clear();
+
+				assertEquals(
+								expected.subList(0, 2),
+								generator.streamDiffRows(original, patch).limit(2).collect(toList()));
+				assertThat(normalized).contains("b", "x").doesNotContain("c", "d", "e", "f", "g");
+				assertEquals(expected, generator.streamDiffRows(original, patch).collect(toList()));
+		}
+
+		@Test
+		public void testParallelismGeneratesSameRows() {
+				List<String> original = new ArrayList<>();
+				List<String> revised = new ArrayList<>();
+				for (int i = 0; i < 500; i++) {
+						original.add("line " + i + " of the original text");
+						revised.add(i % 3 == 0 ? "line " + i + " of the revised text" : "line " + i + " of the original text");
+						if (i % 7 == 0) {
+								revised.add("inserted " + i);
+						}
+				}
+				ExecutorService executor = Executors.newFixedThreadPool(4);
+				try {
+						DiffRowGenerator.Builder builder =
+										DiffRowGenerator.create().showInlineDiffs(true).inlineDiffByWord(true);
+
+						assertEquals(
+										builder.build().generateDiffRows(original, revised),
+										builder.parallelism(executor).build().generateDiffRows(original, revised));
+				} finally {
+						executor.shutdown();
+				}
+		}
+
+		@Test
+		public void testInlineDiffFallsBackToWords() {
+				DiffRowGenerator generator = DiffRowGenerator.create()
+								.showInlineDiffs(true)
+								.oldTag(f -> "~")
+								.newTag(f -> "**")
+								.maxInlineDiffSize(10)
+								.build();
+
+				List<DiffRow> rows = generator.generateDiffRows(Arrays.asList("the quick fox"), Arrays.asList("the slow fox"));
+
+				assertEquals(1, rows.size());
+				assertEquals("the ~quick~ fox", rows.get(0).getOldLine());
+				assertEquals("the **slow** fox", rows.get(0).getNewLine());
+				assertTrue(rows.get(0).isInlineDiffFallback());
+		}
+
+		@Test
+		public void testInlineDiffFallsBackToLines() {
+				DiffRowGenerator generator = DiffRowGenerator.create()
+								.showInlineDiffs(true)
+								.oldTag(f -> "~")
+								.newTag(f -> "**")
+								.maxInlineDiffSize(2)
+								.build();
+
+				List<DiffRow> rows = generator.generateDiffRows(Arrays.asList("the quick fox"), Arrays.asList("the slow fox"));
+
+				assertEquals(1, rows.size());
+				assertEquals("the quick fox", rows.get(0).getOldLine());
+				assertEquals("the slow fox", rows.get(0).getNewLine());
+				assertTrue(rows.get(0).isInlineDiffFallback());
+		}
+
+		@Test
+		public void testInlineDiffStepBudget() {
+				DiffRowGenerator.Builder builder =
+								DiffRowGenerator.create().showInlineDiffs(true).oldTag(f -> "~").newTag(f -> "**");
+
+				DiffRow limited = builder.maxInlineDiffSteps(3)
+								.build()
+								.generateDiffRows(Arrays.asList("abcdef ghi"), Arrays.asList("uvwxyz ghi"))
+								.get(0);
+				DiffRow withinBudget = builder.maxInlineDiffSteps(3)
+								.build()
+								.generateDiffRows(Arrays.asList("abcdef ghi"), Arrays.asList("abcdef gXi"))
+								.get(0);
+
+				assertEquals("~abcdef~ ghi", limited.getOldLine());
+				assertTrue(limited.isInlineDiffFallback());
+				assertEquals("abcdef g~h~i", withinBudget.getOldLine());
+				assertFalse(withinBudget.isInlineDiffFallback());
+		}
+
+		@Test
+		public void testInlineDiffCache() {
+				List<String> original = new ArrayList<>();
+				List<String> revised = new ArrayList<>();
+				for (int i = 0; i < 100; i++) {
+						original.add("call(oldName);");
+						revised.add("call(newName);");
+						original.add("unchanged " + i);
+						revised.add("unchanged " + i);
+				}
+				DiffRowGenerator.Builder builder = DiffRowGenerator.create().showInlineDiffs(true);
+				DiffRowGenerator cached = builder.inlineDiffCacheSize(16).build();
+
+				assertEquals(
+								builder.inlineDiffCacheSize(0).build().generateDiffRows(original, revised),
+								cached.generateDiffRows(original, revised));
+				assertEquals(1, cached.getInlineDiffCacheMisses());
+				assertEquals(99, cached.getInlineDiffCacheHits());
+		}
+
+		@Test
+		public void testInlineDiffKeepsSurrogatePairs() {
+				DiffRowGenerator generator = DiffRowGenerator.create()
+								.showInlineDiffs(true)
+								.oldTag(f -> "~")
+								.newTag(f -> "**")
+								.build();
+
+				// U+1F600 and U+1F601 share their high surrogate
+				List<DiffRow> rows = generator.generateDiffRows(
+								Arrays.asList("smile \uD83D\uDE00", "x"), Arrays.asList("smile \uD83D\uDE01", "x!"));
+
+				assertEquals(2, rows.size());
+				assertEquals("smile ~\uD83D\uDE00~", rows.get(0).getOldLine());
+				assertEquals("smile **\uD83D\uDE01**", rows.get(0).getNewLine());
+				assertEquals("x**!**", rows.get(1).getNewLine());
+				assertEquals(
+								Arrays.asList("a", "\uD83D\uDE00", "b"),
+								DiffRowGenerator.SPLITTER_BY_CHARACTER.apply("a\uD83D\uDE00b"));
+		}
+
+		@Test
+		public void testInlineDiffWithCustomEqualizer() {
+				DiffRowGenerator generator = DiffRowGenerator.create()
+								.showInlineDiffs(true)
+								.equalizer(String::equalsIgnoreCase)
+								.oldTag(f -> "~")
+								.newTag(f -> "**")
+								.build();
+
+				List<DiffRow> rows = generator.generateDiffRows(Arrays.asList("Hello World"), Arrays.asList("hello word"));
+
+				assertEquals(1, rows.size());
+				assertEquals("Hello Wor~l~d", rows.get(0).getOldLine());
+				assertEquals("hello word", rows.get(0).getNewLine());
+		}
 }
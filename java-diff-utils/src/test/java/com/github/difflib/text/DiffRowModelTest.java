@@ -0,0 +1,122 @@
+package com.github.difflib.text;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.github.difflib.DiffUtils;
+import com.github.difflib.patch.Patch;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+public class DiffRowModelTest {
+
+		@Test
+		public void testSameRowsAsGenerateDiffRows() {
+				Random random = new Random(7);
+				for (int round = 0; round < 200; round++) {
+						List<String> original = randomLines(random, 1 + random.nextInt(40));
+						List<String> revised = mutate(random, original);
+						Patch<String> patch = DiffUtils.diff(original, revised);
+						DiffRowGenerator generator = DiffRowGenerator.create()
+										.showInlineDiffs(random.nextBoolean())
+										.decompressDeltas(random.nextBoolean())
+										.contextLines(random.nextInt(4) - 1)
+										.build();
+
+						List<DiffRow> expected = generator.generateDiffRows(original, patch);
+						DiffRowModel model = generator.generateDiffRowModel(original, patch, 5);
+
+						assertEquals(expected.size(), model.rowCount());
+						for (int i = model.rowCount() - 1; i >= 0; i--) {
+								assertEquals(expected.get(i), model.row(i), "row " + i);
+						}
+						assertEquals(expected, model.rows(0, model.rowCount()));
+				}
+		}
+
+		@Test
+		public void testFoldsSurplusMergedRowsIntoLastRow() {
+				DiffRowGenerator generator = DiffRowGenerator.create()
+								.showInlineDiffs(true)
+								.mergeOriginalRevised(true)
+								.decompressDeltas(false)
+								.oldTag(f -> "~")
+								.newTag(f -> "**")
+								.build();
+				List<String> original = Arrays.asList("", "ab");
+				List<String> revised = Arrays.asList("a", "b");
+				Patch<String> patch = DiffUtils.diff(original, revised);
+
+				DiffRowModel model = generator.generateDiffRowModel(original, patch);
+
+				assertEquals(3, generator.generateDiffRows(original, patch).size());
+				assertEquals(
+								Arrays.asList(new DiffRow(DiffRow.Tag.CHANGE, "", "a"), new DiffRow(DiffRow.Tag.CHANGE, "a\nb", "b\n")),
+								model.rows(0, model.rowCount()));
+		}
+
+		@Test
+		public void testPadsRowsDroppedByInlineDiff() {
+				DiffRowGenerator generator = DiffRowGenerator.create()
+								.showInlineDiffs(true)
+								.decompressDeltas(false)
+								.oldTag(f -> "~")
+								.newTag(f -> "**")
+								.build();
+				List<String> original = Arrays.asList("x", "a", "");
+				List<String> revised = Arrays.asList("x", "b");
+				Patch<String> patch = DiffUtils.diff(original, revised);
+
+				DiffRowModel model = generator.generateDiffRowModel(original, patch);
+
+				assertEquals(2, generator.generateDiffRows(original, patch).size());
+				assertEquals(
+								Arrays.asList(
+												new DiffRow(DiffRow.Tag.EQUAL, "x", "x"),
+												new DiffRow(DiffRow.Tag.CHANGE, "~a~", "**b**"),
+												new DiffRow(DiffRow.Tag.CHANGE, "", "")),
+								model.rows(0, model.rowCount()));
+		}
+
+		@Test
+		public void testRowOutOfRange() {
+				DiffRowModel model = DiffRowGenerator.create()
+								.build()
+								.generateDiffRowModel(Arrays.asList("a"), DiffUtils.diff(Arrays.asList("a"), Arrays.asList("b")));
+
+				assertEquals(1, model.rowCount());
+				assertThrows(IndexOutOfBoundsException.class, () -> model.row(1));
+				assertThrows(IndexOutOfBoundsException.class, () -> model.row(-1));
+		}
+
+		private static List<String> randomLines(Random random, int count) {
+				List<String> lines = new ArrayList<>();
+				for (int i = 0; i < count; i++) {
+						lines.add("line " + random.nextInt(10));
+				}
+				return lines;
+		}
+
+		private static List<String> mutate(Random random, List<String> lines) {
+				List<String> result = new ArrayList<>();
+				for (String line : lines) {
+						switch (random.nextInt(6)) {
+								case 0:
+										break;
+								case 1:
+										result.add(line + " changed");
+										break;
+								case 2:
+										result.add(line);
+										result.add("inserted " + random.nextInt(10));
+										break;
+								default:
+										result.add(line);
+						}
+				}
+				return result;
+		}
+}
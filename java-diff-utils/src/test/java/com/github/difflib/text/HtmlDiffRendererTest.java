@@ -0,0 +1,79 @@
+package com.github.difflib.text;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+public class HtmlDiffRendererTest {
+
+		@Test
+		public void testRenderRows() throws IOException {
+				DiffRowGenerator generator = DiffRowGenerator.create().build();
+
+				assertEquals(
+								row("equal", "a &lt;b&gt; &amp; &quot;c&quot;", "a &lt;b&gt; &amp; &quot;c&quot;")
+												+ row("change", "x", "y")
+												+ row("insert", "", "    z")
+												+ row("equal", "", ""),
+								render(
+												generator,
+												Arrays.asList("a <b> & \"c\"", "x", ""),
+												Arrays.asList("a <b> & \"c\"", "y", "\tz", "")));
+		}
+
+		@Test
+		public void testRenderInlineDiffs() throws IOException {
+				DiffRowGenerator generator = DiffRowGenerator.create()
+								.showInlineDiffs(true)
+								.oldTag(f -> f ? "<del>" : "</del>")
+								.newTag(f -> f ? "<ins>" : "</ins>")
+								.build();
+
+				assertEquals(
+								row("change", "a<del>&lt;</del>c", "a<ins>&gt;</ins>c")
+												+ row("change", "<del>x</del>", "<ins>yz</ins>")
+												+ row("delete", "<del>gone</del>", ""),
+								render(generator, Arrays.asList("a<c", "x", "gone"), Arrays.asList("a>c", "yz")));
+		}
+
+		@Test
+		public void testRenderInlineDiffsAcrossLines() throws IOException {
+				DiffRowGenerator generator = DiffRowGenerator.create()
+								.showInlineDiffs(true)
+								.decompressDeltas(false)
+								.oldTag(f -> f ? "<del>" : "</del>")
+								.newTag(f -> f ? "<ins>" : "</ins>")
+								.build();
+
+				assertEquals(
+								row("change", "a<del>b</del>", "a<ins>x</ins>")
+												+ row("change", "<del>c</del>", "<ins>y</ins>")
+												+ row("change", "", "<ins>z</ins>"),
+								render(generator, Arrays.asList("ab", "c"), Arrays.asList("ax", "y", "z")));
+		}
+
+		@Test
+		public void testColumnWidthCountsCharactersNotMarkup() throws IOException {
+				DiffRowGenerator generator = DiffRowGenerator.create().columnWidth(3).build();
+
+				assertEquals(
+								row("equal", "&lt;&lt;&lt;<br/>&lt;&lt;", "&lt;&lt;&lt;<br/>&lt;&lt;")
+												+ row("change", "abc<br/>d", "abc"),
+								render(generator, Arrays.asList("<<<<<", "abcd"), Arrays.asList("<<<<<", "abc")));
+		}
+
+		private static String render(DiffRowGenerator generator, List<String> original, List<String> revised)
+						throws IOException {
+				StringBuilder out = new StringBuilder();
+				HtmlDiffRenderer.render(generator, original, revised, out);
+				return out.toString();
+		}
+
+		private static String row(String tag, String oldLine, String newLine) {
+				return "<tr class=\"" + tag + "\"><td class=\"oldLine\">" + oldLine + "</td><td class=\"newLine\">" + newLine
+								+ "</td></tr>\n";
+		}
+}
@@ -0,0 +1,54 @@
+package com.github.difflib.unifieddiff;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class LineSourceTest {
+
+		@TempDir
+		Path tempDir;
+
+		@Test
+		public void testMappedLinesLikeReadAllLines() throws IOException {
+				String[] contents = {"", "a", "a\n", "a\nb", "a\r\nb\r\n", "a\rb\r\rc", "\n\n", "ä\r\n\nö"};
+				for (String content : contents) {
+						Path path = tempDir.resolve("lines.txt");
+						Files.write(path, content.getBytes(StandardCharsets.UTF_8));
+
+						LineSource source = LineSource.of(path, StandardCharsets.UTF_8);
+
+						List<String> expected = Files.readAllLines(path, StandardCharsets.UTF_8);
+						assertEquals(expected.size(), source.size(), content);
+						assertEquals(expected, source.range(0, source.size()), content);
+				}
+		}
+
+		@Test
+		public void testWriteWithMappedLineSource() throws IOException {
+				List<String> original = new ArrayList<>();
+				for (int i = 0; i < 4000; i++) {
+						original.add("original line " + i);
+				}
+				Path path = tempDir.resolve("original.txt");
+				Files.write(path, original, StandardCharsets.UTF_8);
+				UnifiedDiff diff =
+								UnifiedDiffReader.parseUnifiedDiff(LineSourceTest.class.getResourceAsStream("jsqlparser_patch_1.diff"));
+
+				StringWriter expected = new StringWriter();
+				UnifiedDiffWriter.write(diff, f -> original, expected, 3);
+				StringBuilder actual = new StringBuilder();
+				UnifiedDiffWriter.writeWithLineSource(diff, f -> LineSource.of(path, StandardCharsets.UTF_8), actual, 3);
+
+				assertThat(actual.toString()).isEqualTo(expected.toString()).contains(" original line 185\n");
+		}
+}
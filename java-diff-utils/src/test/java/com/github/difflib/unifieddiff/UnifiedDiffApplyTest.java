@@ -0,0 +1,395 @@
+package com.github.difflib.unifieddiff;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import com.github.difflib.unifieddiff.ApplyResult.Status;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermission;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class UnifiedDiffApplyTest {
+
+		private static final String DIFF = "diff --git a/src/main.txt b/src/main.txt\n"
+						+ "index 1111111..2222222 100644\n"
+						+ "--- a/src/main.txt\n"
+						+ "+++ b/src/main.txt\n"
+						+ "@@ -1,3 +1,4 @@\n"
+						+ " m1\n"
+						+ "-m2\n"
+						+ "+M2\n"
+						+ "+M2b\n"
+						+ " m3\n"
+						+ "diff --git a/new.txt b/new.txt\n"
+						+ "new file mode 100644\n"
+						+ "index 0000000..3333333\n"
+						+ "--- /dev/null\n"
+						+ "+++ b/new.txt\n"
+						+ "@@ -0,0 +1,2 @@\n"
+						+ "+n1\n"
+						+ "+n2\n"
+						+ "diff --git a/gone.txt b/gone.txt\n"
+						+ "deleted file mode 100644\n"
+						+ "index 4444444..0000000\n"
+						+ "--- a/gone.txt\n"
+						+ "+++ /dev/null\n"
+						+ "@@ -1,2 +0,0 @@\n"
+						+ "-g1\n"
+						+ "-g2\n"
+						+ "diff --git a/old.txt b/moved.txt\n"
+						+ "similarity index 80%\n"
+						+ "rename from old.txt\n"
+						+ "rename to moved.txt\n"
+						+ "index 5555555..6666666 100644\n"
+						+ "--- a/old.txt\n"
+						+ "+++ b/moved.txt\n"
+						+ "@@ -1,3 +1,3 @@\n"
+						+ " r1\n"
+						+ "-r2\n"
+						+ "+R2\n"
+						+ " r3\n"
+						+ "diff --git a/other.txt b/other.txt\n"
+						+ "index 7777777..8888888 100644\n"
+						+ "--- a/other.txt\n"
+						+ "+++ b/other.txt\n"
+						+ "@@ -1,2 +1,2 @@\n"
+						+ " o1\n"
+						+ "-o2\n"
+						+ "+O2\n";
+
+		@TempDir
+		Path root;
+
+		@BeforeEach
+		public void createFiles() throws IOException {
+				Files.createDirectories(root.resolve("src"));
+				write("src/main.txt", "m1\r\nm2\r\nm3\r\n");
+				write("gone.txt", "g1\ng2\n");
+				write("old.txt", "r1\nr2\nr3");
+				// does not fit the patch
+				write("other.txt", "o1\nchanged\n");
+		}
+
+		@Test
+		public void testApplyTo() throws IOException {
+				UnifiedDiff diff = UnifiedDiffReader.parseUnifiedDiff(stream(DIFF));
+
+				ApplyResult result = diff.applyTo(root, ApplyOptions.create().build());
+
+				assertResult(result);
+		}
+
+		@Test
+		public void testApplyWhileParsing() throws IOException {
+				ApplyResult result = UnifiedDiffReader.applyUnifiedDiff(
+								stream(DIFF), root, ApplyOptions.create().build());
+
+				assertResult(result);
+		}
+
+		@Test
+		public void testDryRun() throws IOException {
+				ApplyResult result = UnifiedDiffReader.parseUnifiedDiff(stream(DIFF))
+								.applyTo(root, ApplyOptions.create().dryRun(true).build());
+
+				assertThat(result.getFiles())
+								.extracting(ApplyResult.FileResult::getStatus)
+								.containsExactly(Status.MODIFIED, Status.CREATED, Status.DELETED, Status.RENAMED, Status.CONFLICT);
+				assertEquals("m1\r\nm2\r\nm3\r\n", read("src/main.txt"));
+				assertTrue(Files.exists(root.resolve("gone.txt")));
+				assertFalse(Files.exists(root.resolve("new.txt")));
+				assertFalse(Files.exists(root.resolve("moved.txt")));
+		}
+
+		@Test
+		public void testFilesOutsideOfRootFail() throws IOException {
+				UnifiedDiff diff = UnifiedDiffReader.parseUnifiedDiff(
+								stream("--- a/../escape.txt\n" + "+++ b/../escape.txt\n" + "@@ -1 +1 @@\n" + "-x\n" + "+y\n"));
+
+				ApplyResult result =
+								diff.applyTo(root.resolve("src"), ApplyOptions.create().build());
+
+				assertEquals(Status.FAILED, result.getFiles().get(0).getStatus());
+				assertFalse(result.isSuccessful());
+		}
+
+		@Test
+		public void testCopyReadsSourceBeforeItIsModified() throws IOException {
+				write("x.txt", "x1\nx2\n");
+				ApplyResult result = apply("diff --git a/x.txt b/x.txt\n"
+								+ "--- a/x.txt\n"
+								+ "+++ b/x.txt\n"
+								+ "@@ -1,2 +1,2 @@\n"
+								+ " x1\n"
+								+ "-x2\n"
+								+ "+X2\n"
+								+ "diff --git a/x.txt b/y.txt\n"
+								+ "similarity index 50%\n"
+								+ "copy from x.txt\n"
+								+ "copy to y.txt\n"
+								+ "--- a/x.txt\n"
+								+ "+++ b/y.txt\n"
+								+ "@@ -1,2 +1,2 @@\n"
+								+ "-x1\n"
+								+ "+Y1\n"
+								+ " x2\n");
+
+				assertStatus(result, Status.MODIFIED, Status.COPIED);
+				assertEquals("x1\nX2\n", read("x.txt"));
+				assertEquals("Y1\nx2\n", read("y.txt"));
+		}
+
+		@Test
+		public void testRenameSwap() throws IOException {
+				write("a.txt", "a1\na2\n");
+				write("b.txt", "b1\nb2\n");
+				ApplyResult result = apply("diff --git a/a.txt b/b.txt\n"
+								+ "similarity index 50%\n"
+								+ "rename from a.txt\n"
+								+ "rename to b.txt\n"
+								+ "--- a/a.txt\n"
+								+ "+++ b/b.txt\n"
+								+ "@@ -1,2 +1,2 @@\n"
+								+ " a1\n"
+								+ "-a2\n"
+								+ "+A2\n"
+								+ "diff --git a/b.txt b/a.txt\n"
+								+ "similarity index 50%\n"
+								+ "rename from b.txt\n"
+								+ "rename to a.txt\n"
+								+ "--- a/b.txt\n"
+								+ "+++ b/a.txt\n"
+								+ "@@ -1,2 +1,2 @@\n"
+								+ " b1\n"
+								+ "-b2\n"
+								+ "+B2\n");
+
+				assertStatus(result, Status.RENAMED, Status.RENAMED);
+				assertEquals("b1\nB2\n", read("a.txt"));
+				assertEquals("a1\nA2\n", read("b.txt"));
+		}
+
+		@Test
+		public void testRenameOntoExistingFileConflicts() throws IOException {
+				write("x.txt", "x1\n");
+				write("y.txt", "y1\n");
+				ApplyResult result = apply("diff --git a/x.txt b/y.txt\n"
+								+ "similarity index 50%\n"
+								+ "rename from x.txt\n"
+								+ "rename to y.txt\n"
+								+ "--- a/x.txt\n"
+								+ "+++ b/y.txt\n"
+								+ "@@ -1 +1 @@\n"
+								+ "-x1\n"
+								+ "+X1\n");
+
+				assertStatus(result, Status.CONFLICT);
+				assertFalse(result.isSuccessful());
+				assertEquals("x1\n", read("x.txt"));
+				assertEquals("y1\n", read("y.txt"));
+		}
+
+		@Test
+		public void testRenameOntoFileDeletedBefore() throws IOException {
+				write("x.txt", "x1\n");
+				write("y.txt", "y1\n");
+				ApplyResult result = apply("diff --git a/y.txt b/y.txt\n"
+								+ "deleted file mode 100644\n"
+								+ "--- a/y.txt\n"
+								+ "+++ /dev/null\n"
+								+ "@@ -1 +0,0 @@\n"
+								+ "-y1\n"
+								+ "diff --git a/x.txt b/y.txt\n"
+								+ "similarity index 50%\n"
+								+ "rename from x.txt\n"
+								+ "rename to y.txt\n"
+								+ "--- a/x.txt\n"
+								+ "+++ b/y.txt\n"
+								+ "@@ -1 +1 @@\n"
+								+ "-x1\n"
+								+ "+X1\n");
+
+				assertStatus(result, Status.DELETED, Status.RENAMED);
+				assertFalse(Files.exists(root.resolve("x.txt")));
+				assertEquals("X1\n", read("y.txt"));
+		}
+
+		@Test
+		public void testFinalNewlineIsAddedAndRemoved() throws IOException {
+				write("add.txt", "a1\na2");
+				write("remove.txt", "r1\nr2\n");
+				ApplyResult result = apply("diff --git a/add.txt b/add.txt\n"
+								+ "--- a/add.txt\n"
+								+ "+++ b/add.txt\n"
+								+ "@@ -1,2 +1,2 @@\n"
+								+ " a1\n"
+								+ "-a2\n"
+								+ "\\ No newline at end of file\n"
+								+ "+a2\n"
+								+ "diff --git a/remove.txt b/remove.txt\n"
+								+ "--- a/remove.txt\n"
+								+ "+++ b/remove.txt\n"
+								+ "@@ -1,2 +1,2 @@\n"
+								+ " r1\n"
+								+ "-r2\n"
+								+ "+r2\n"
+								+ "\\ No newline at end of file\n");
+
+				assertStatus(result, Status.MODIFIED, Status.MODIFIED);
+				assertEquals("a1\na2\n", read("add.txt"));
+				assertEquals("r1\nr2", read("remove.txt"));
+		}
+
+		@Test
+		public void testDryRunPassesContentAlong() throws IOException {
+				ApplyResult result = UnifiedDiffReader.parseUnifiedDiff(stream("diff --git a/n.txt b/n.txt\n"
+												+ "new file mode 100644\n"
+												+ "--- /dev/null\n"
+												+ "+++ b/n.txt\n"
+												+ "@@ -0,0 +1,2 @@\n"
+												+ "+n1\n"
+												+ "+n2\n"
+												+ "diff --git a/n.txt b/n.txt\n"
+												+ "--- a/n.txt\n"
+												+ "+++ b/n.txt\n"
+												+ "@@ -1,2 +1,2 @@\n"
+												+ " n1\n"
+												+ "-n2\n"
+												+ "+N2\n"
+												+ "diff --git a/gone.txt b/gone.txt\n"
+												+ "--- a/gone.txt\n"
+												+ "+++ b/gone.txt\n"
+												+ "@@ -1,2 +1,2 @@\n"
+												+ "-g1\n"
+												+ "+G1\n"
+												+ " g2\n"
+												+ "diff --git a/gone.txt b/gone.txt\n"
+												+ "--- a/gone.txt\n"
+												+ "+++ b/gone.txt\n"
+												+ "@@ -1,2 +1,2 @@\n"
+												+ " G1\n"
+												+ "-g2\n"
+												+ "+G2\n"))
+								.applyTo(root, ApplyOptions.create().dryRun(true).build());
+
+				assertStatus(result, Status.CREATED, Status.MODIFIED, Status.MODIFIED, Status.MODIFIED);
+				assertFalse(Files.exists(root.resolve("n.txt")));
+				assertEquals("g1\ng2\n", read("gone.txt"));
+		}
+
+		@Test
+		public void testNewFileGetsDefaultPermissions() throws IOException {
+				assumePosix();
+				Set<PosixFilePermission> defaults =
+								Files.getPosixFilePermissions(Files.createFile(root.resolve("default.txt")));
+
+				assertStatus(apply(DIFF), Status.MODIFIED, Status.CREATED, Status.DELETED, Status.RENAMED, Status.CONFLICT);
+				assertEquals(defaults, Files.getPosixFilePermissions(root.resolve("new.txt")));
+		}
+
+		@Test
+		public void testNewFileModeIsApplied() throws IOException {
+				assumePosix();
+				ApplyResult result = apply("diff --git a/run.sh b/run.sh\n"
+								+ "new file mode 100755\n"
+								+ "--- /dev/null\n"
+								+ "+++ b/run.sh\n"
+								+ "@@ -0,0 +1 @@\n"
+								+ "+echo run\n");
+
+				assertStatus(result, Status.CREATED);
+				Set<PosixFilePermission> permissions = Files.getPosixFilePermissions(root.resolve("run.sh"));
+				assertTrue(permissions.contains(PosixFilePermission.OWNER_EXECUTE));
+				assertEquals(
+								permissions.contains(PosixFilePermission.OTHERS_READ),
+								permissions.contains(PosixFilePermission.OTHERS_EXECUTE));
+		}
+
+		@Test
+		public void testModeChangeIsApplied() throws IOException {
+				assumePosix();
+				write("run.sh", "echo run\n");
+				Files.setPosixFilePermissions(root.resolve("run.sh"), PosixFilePermissions.fromString("rw-r-----"));
+				write("tool.sh", "echo tool\n");
+				Files.setPosixFilePermissions(root.resolve("tool.sh"), PosixFilePermissions.fromString("rwxr-x---"));
+				ApplyResult result = apply("diff --git a/run.sh b/run.sh\n"
+								+ "old mode 100644\n"
+								+ "new mode 100755\n"
+								+ "diff --git a/tool.sh b/tool.sh\n"
+								+ "old mode 100755\n"
+								+ "new mode 100644\n"
+								+ "--- a/tool.sh\n"
+								+ "+++ b/tool.sh\n"
+								+ "@@ -1 +1 @@\n"
+								+ "-echo tool\n"
+								+ "+echo TOOL\n");
+
+				assertStatus(result, Status.MODIFIED, Status.MODIFIED);
+				assertEquals("echo run\n", read("run.sh"));
+				assertEquals(
+								PosixFilePermissions.fromString("rwxr-x---"), Files.getPosixFilePermissions(root.resolve("run.sh")));
+				assertEquals("echo TOOL\n", read("tool.sh"));
+				assertEquals(
+								PosixFilePermissions.fromString("rw-r-----"), Files.getPosixFilePermissions(root.resolve("tool.sh")));
+		}
+
+		private static void assumePosix() {
+				assumeTrue(FileSystems.getDefault().supportedFileAttributeViews().contains("posix"));
+		}
+
+		private void assertResult(ApplyResult result) throws IOException {
+				assertThat(result.getFiles())
+								.extracting(ApplyResult.FileResult::getStatus)
+								.containsExactly(Status.MODIFIED, Status.CREATED, Status.DELETED, Status.RENAMED, Status.CONFLICT);
+				assertFalse(result.isSuccessful());
+				assertEquals(root.resolve("other.txt"), result.getFiles().get(4).getPath());
+
+				assertEquals("m1\r\nM2\r\nM2b\r\nm3\r\n", read("src/main.txt"));
+				assertEquals("n1\nn2\n", read("new.txt"));
+				assertFalse(Files.exists(root.resolve("gone.txt")));
+				assertFalse(Files.exists(root.resolve("old.txt")));
+				assertEquals("r1\nR2\nr3", read("moved.txt"));
+				assertEquals("o1\nchanged\n", read("other.txt"));
+				try (Stream<Path> files = Files.list(root)) {
+						assertThat(files.map(path -> path.getFileName().toString()).collect(Collectors.toList()))
+										.containsExactlyInAnyOrder("src", "new.txt", "moved.txt", "other.txt");
+				}
+		}
+
+		private ApplyResult apply(String diff) throws IOException {
+				return UnifiedDiffReader.parseUnifiedDiff(stream(diff))
+								.applyTo(root, ApplyOptions.create().build());
+		}
+
+		private static void assertStatus(ApplyResult result, Status... statuses) {
+				assertThat(result.getFiles())
+								.extracting(ApplyResult.FileResult::getStatus)
+								.containsExactly(statuses);
+		}
+
+		private void write(String name, String text) throws IOException {
+				Files.write(root.resolve(name), text.getBytes(StandardCharsets.UTF_8));
+		}
+
+		private String read(String name) throws IOException {
+				return new String(Files.readAllBytes(root.resolve(name)), StandardCharsets.UTF_8);
+		}
+
+		private static ByteArrayInputStream stream(String text) {
+				return new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8));
+		}
+}
@@ -0,0 +1,62 @@
+package com.github.difflib.unifieddiff;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class UnifiedDiffReaderIndexTest {
+
+		@TempDir
+		Path tempDir;
+
+		@Test
+		public void testSameResultAsParser() throws IOException {
+				for (String resource : UnifiedDiffReaderParallelTest.RESOURCES) {
+						byte[] data = UnifiedDiffReaderParallelTest.read(resource);
+						Path path = tempDir.resolve(resource);
+						Files.write(path, data);
+
+						UnifiedDiffReaderParallelTest.assertSameDiff(
+										resource,
+										UnifiedDiffReader.parseUnifiedDiff(new ByteArrayInputStream(data)),
+										UnifiedDiffReader.index(path, Charset.defaultCharset()));
+				}
+		}
+
+		@Test
+		public void testPatchesAreLoadedOnDemand() throws IOException {
+				ByteArrayOutputStream out = new ByteArrayOutputStream();
+				for (String resource : UnifiedDiffReaderParallelTest.RESOURCES) {
+						out.write(UnifiedDiffReaderParallelTest.read(resource));
+				}
+				byte[] data = out.toByteArray();
+				Path path = tempDir.resolve("all.diff");
+				Files.write(path, data);
+
+				UnifiedDiff expected = UnifiedDiffReader.parseUnifiedDiff(new ByteArrayInputStream(data));
+				UnifiedDiff index = UnifiedDiffReader.index(path);
+
+				assertEquals(expected.getFiles().size(), index.getFiles().size());
+				UnifiedDiffFile last = index.getFiles().get(index.getFiles().size() - 1);
+				assertFalse(last.isPatchLoaded());
+				assertEquals(
+								expected.getFiles()
+												.get(expected.getFiles().size() - 1)
+												.getPatch()
+												.getDeltas(),
+								last.getPatch().getDeltas());
+				assertTrue(last.isPatchLoaded());
+				assertFalse(index.getFiles().get(0).isPatchLoaded());
+
+				UnifiedDiffReaderParallelTest.assertSameDiff("all", expected, index);
+		}
+}
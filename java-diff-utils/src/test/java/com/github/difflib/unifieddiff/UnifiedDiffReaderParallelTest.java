@@ -0,0 +1,190 @@
+package com.github.difflib.unifieddiff;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+public class UnifiedDiffReaderParallelTest {
+
+		static final String[] RESOURCES = {
+				"0001-avahi-python-Use-the-agnostic-DBM-interface.patch",
+				"01-bazel-strip-unused.patch_issue107.diff",
+				"jsqlparser_patch_1.diff",
+				"problem_diff_issue107.diff",
+				"problem_diff_issue107_3.diff",
+				"problem_diff_issue107_4.diff",
+				"problem_diff_issue107_5.diff",
+				"problem_diff_issue117.diff",
+				"problem_diff_issue122.diff",
+				"problem_diff_issue123.diff",
+				"problem_diff_issue141.diff",
+				"problem_diff_issue182_add.diff",
+				"problem_diff_issue182_delete.diff",
+				"problem_diff_issue182_edit.diff",
+				"problem_diff_issue182_mode.diff",
+				"problem_diff_issue33.diff",
+				"problem_diff_issue46.diff",
+				"problem_diff_issue51.diff",
+				"problem_diff_issue79.diff",
+				"problem_diff_issue84.diff",
+				"problem_diff_issue85.diff",
+				"problem_diff_issue98.diff",
+				"problem_diff_parsing_issue104.diff",
+				"problem_diff_parsing_issue193.diff"
+		};
+
+		private static ExecutorService executor;
+
+		@BeforeAll
+		public static void startExecutor() {
+				executor = Executors.newFixedThreadPool(4);
+		}
+
+		@AfterAll
+		public static void stopExecutor() {
+				executor.shutdown();
+		}
+
+		@Test
+		public void testSameResultAsSequentialParser() throws IOException {
+				for (String resource : RESOURCES) {
+						byte[] data = read(resource);
+
+						assertSameDiff(resource, parse(data), parseInSections(data));
+				}
+		}
+
+		@Test
+		public void testSameResultForConcatenatedDiffs() throws IOException {
+				ByteArrayOutputStream out = new ByteArrayOutputStream();
+				for (String resource : RESOURCES) {
+						out.write(read(resource));
+				}
+				byte[] data = out.toByteArray();
+
+				assertSameDiff("all", parse(data), parseInSections(data));
+				assertSameDiff(
+								"all",
+								parse(data),
+								UnifiedDiffReader.parseUnifiedDiffParallel(new ByteArrayInputStream(data), executor));
+		}
+
+		@Test
+		public void testSameResultForManyFiles() throws IOException {
+				StringBuilder diff = new StringBuilder("a header\n");
+				for (int i = 0; i < 2000; i++) {
+						diff.append("diff --git a/file")
+										.append(i)
+										.append(".txt b/file")
+										.append(i)
+										.append(".txt\n");
+						if (i % 50 == 7) {
+								diff.append("old mode 100644\nnew mode 100755\n");
+								continue;
+						}
+						diff.append("--- a/file").append(i).append(".txt\n");
+						diff.append("+++ b/file").append(i).append(".txt\n");
+						diff.append("@@ -1,3 +1,3 @@\n line 1\n-line ").append(i).append("\n+line 2\n line 3\n");
+						if (i % 30 == 0) {
+								diff.append("\\ No newline at end of file\n");
+						}
+				}
+				diff.append("-- \n2.40.0\n");
+				byte[] data = diff.toString().getBytes(StandardCharsets.UTF_8);
+
+				UnifiedDiff expected = parse(data);
+				UnifiedDiff actual = UnifiedDiffReader.parseUnifiedDiffParallel(new ByteArrayInputStream(data));
+
+				assertThat(UnifiedDiffReader.findSections(data, 0, data.length, 0)).hasSizeGreaterThan(1000);
+				assertSameDiff("many", expected, parseInSections(data));
+				assertSameDiff("many", expected, actual);
+				assertEquals(2000, actual.getFiles().size());
+				assertEquals("100755", actual.getFiles().get(7).getNewMode());
+				assertThat(actual.getFiles().get(7).getPatch().getDeltas()).isEmpty();
+				assertEquals("file8.txt", actual.getFiles().get(8).getToFile());
+				assertEquals("2.40.0", actual.getTail());
+		}
+
+		@Test
+		public void testParsingErrorIsThrown() {
+				byte[] data = ("diff --git a/x b/x\n--- a/x\n+++ b/x\n@@ -1,2 +1,2 @@\n-a\n+b\n"
+												+ "diff --git a/y b/y\n--- a/y\n+++ b/y\n@@ -1 +1 @@\n-a\n+b\n")
+								.getBytes(StandardCharsets.UTF_8);
+
+				assertThrows(UnifiedDiffParserException.class, () -> parse(data));
+				assertThrows(
+								UnifiedDiffParserException.class,
+								() -> UnifiedDiffReader.parseSections(
+												data, UnifiedDiffReader.findSections(data, 0, data.length, 0), executor));
+		}
+
+		private static UnifiedDiff parse(byte[] data) throws IOException {
+				return UnifiedDiffReader.parseUnifiedDiff(new ByteArrayInputStream(data));
+		}
+
+		private static UnifiedDiff parseInSections(byte[] data) throws IOException {
+				return UnifiedDiffReader.parseSections(
+								data, UnifiedDiffReader.findSections(data, 0, data.length, 0), ForkJoinPool.commonPool());
+		}
+
+		static byte[] read(String resource) throws IOException {
+				ByteArrayOutputStream out = new ByteArrayOutputStream();
+				try (InputStream in = UnifiedDiffReaderParallelTest.class.getResourceAsStream(resource)) {
+						byte[] buffer = new byte[8192];
+						int count;
+						while ((count = in.read(buffer)) >= 0) {
+								out.write(buffer, 0, count);
+						}
+				}
+				return out.toByteArray();
+		}
+
+		static void assertSameDiff(String message, UnifiedDiff expected, UnifiedDiff actual) {
+				assertEquals(expected.getHeader(), actual.getHeader(), message);
+				assertEquals(expected.getTail(), actual.getTail(), message);
+				assertEquals(expected.getFiles().size(), actual.getFiles().size(), message);
+				for (int i = 0; i < expected.getFiles().size(); i++) {
+						assertEquals(
+										describe(expected.getFiles().get(i)),
+										describe(actual.getFiles().get(i)),
+										message + " file " + i);
+				}
+		}
+
+		private static String describe(UnifiedDiffFile file) {
+				return String.join(
+												"|",
+												file.getDiffCommand(),
+												file.getFromFile(),
+												file.getToFile(),
+												file.getFromTimestamp(),
+												file.getToTimestamp(),
+												file.getIndex(),
+												file.getNewFileMode(),
+												file.getDeletedFileMode(),
+												file.getOldMode(),
+												file.getNewMode(),
+												file.getRenameFrom(),
+												file.getRenameTo(),
+												file.getCopyFrom(),
+												file.getCopyTo(),
+												file.getBinaryAdded(),
+												file.getBinaryDeleted(),
+												file.getBinaryEdited(),
+												String.valueOf(file.getSimilarityIndex()),
+												String.valueOf(file.isNoNewLineAtTheEndOfTheFile()))
+								+ file.getPatch().getDeltas();
+		}
+}
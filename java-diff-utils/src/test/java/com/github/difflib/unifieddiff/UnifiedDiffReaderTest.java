@@ -21,7 +21,12 @@ import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import com.github.difflib.patch.AbstractDelta;
+import com.github.difflib.unifieddiff.UnifiedDiffHandler.LineType;
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import org.junit.jupiter.api.Test;
@@ -89,6 +94,41 @@ public class UnifiedDiffReaderTest {
 				assertEquals("1", matcher.group(3));
 		}
 
+		@Test
+		public void testChunkHeaderScanningMatchesRegexp() {
+				String[] lines = {
+						"@@ -189,6 +189,7 @@ TOKEN",
+						"@@ -1 +1 @@",
+						"@@\t-1,2\t+3,4\t@@",
+						"@@   -5  +7,0  @@x",
+						"@@ -0,0 +1,2 @@",
+						"@@ -1,x +1 @@",
+						"@@ -1, +1 @@",
+						"@@ -1 +1@@",
+						"@@-1 +1 @@",
+						"@@ -1 -1 @@",
+						"@@ -a +1 @@",
+						"@@ -1 +1 @",
+						"@@ -1",
+						"@@",
+						"@ -1 +1 @@",
+						""
+				};
+				int[] values = new int[4];
+				for (String line : lines) {
+						Matcher matcher = UnifiedDiffReader.UNIFIED_DIFF_CHUNK_REGEXP.matcher(line);
+						boolean found = matcher.find();
+
+						assertEquals(found, UnifiedDiffReader.scanChunkHeader(line, values), line);
+						if (found) {
+								assertEquals(Integer.parseInt(matcher.group(1)), values[0], line);
+								assertEquals(matcher.group(2) == null ? 1 : Integer.parseInt(matcher.group(2)), values[1], line);
+								assertEquals(Integer.parseInt(matcher.group(3)), values[2], line);
+								assertEquals(matcher.group(4) == null ? 1 : Integer.parseInt(matcher.group(4)), values[3], line);
+						}
+				}
+		}
+
 		@Test
 		public void testSimpleParse2() throws IOException {
 				UnifiedDiff diff = UnifiedDiffReader.parseUnifiedDiff(
@@ -503,4 +543,100 @@ public class UnifiedDiffReaderTest {
 				assertThat(file1.getCopyTo())
 								.isEqualTo("modules/configuration/config/web/pcf/account/AccountContactCV.default.pcf");
 		}
+
+		@Test
+		public void testParseWithHandler() throws IOException {
+				List<String> events = new ArrayList<>();
+				int[] lineCounts = new int[3];
+				UnifiedDiffReader.parseUnifiedDiff(
+								UnifiedDiffReaderTest.class.getResourceAsStream("jsqlparser_patch_1.diff"), new UnifiedDiffHandler() {
+										@Override
+										public void onFileStart(UnifiedDiffFile file) {
+												events.add("start " + file.getFromFile());
+										}
+
+										@Override
+										public void onHunk(int oldStart, int oldSize, int newStart, int newSize) {
+												events.add("hunk " + oldStart + "," + oldSize + " " + newStart + "," + newSize);
+										}
+
+										@Override
+										public void onLine(LineType type, String text) {
+												lineCounts[type.ordinal()]++;
+										}
+
+										@Override
+										public void onFileEnd(UnifiedDiffFile file) {
+												events.add("end " + file.getToFile());
+										}
+
+										@Override
+										public void onTail(String tail) {
+												events.add("tail " + tail);
+										}
+								});
+
+				assertThat(events)
+								.containsExactly(
+												"start src/main/jjtree/net/sf/jsqlparser/parser/JSqlParserCC.jjt",
+												"hunk 189,6 189,7",
+												"hunk 1039,7 1040,7",
+												"hunk 3118,7 3119,7",
+												"end src/main/jjtree/net/sf/jsqlparser/parser/JSqlParserCC.jjt",
+												"start src/test/java/net/sf/jsqlparser/statement/select/SelectTest.java",
+												"hunk 1063,6 1063,13",
+												"end src/test/java/net/sf/jsqlparser/statement/select/SelectTest.java",
+												"tail 2.17.1.windows.2\n");
+
+				UnifiedDiff diff = UnifiedDiffReader.parseUnifiedDiff(
+								UnifiedDiffReaderTest.class.getResourceAsStream("jsqlparser_patch_1.diff"));
+				int deleted = 0;
+				int inserted = 0;
+				for (UnifiedDiffFile file : diff.getFiles()) {
+						for (AbstractDelta<String> delta : file.getPatch().getDeltas()) {
+								deleted += delta.getSource().getChangePosition().size();
+								inserted += delta.getTarget().getChangePosition().size();
+						}
+				}
+				assertEquals(deleted, lineCounts[LineType.DELETE.ordinal()]);
+				assertEquals(inserted, lineCounts[LineType.INSERT.ordinal()]);
+		}
+
+		@Test
+		public void testParseWithFileFilter() throws IOException {
+				UnifiedDiff all = UnifiedDiffReader.parseUnifiedDiff(
+								UnifiedDiffReaderTest.class.getResourceAsStream("01-bazel-strip-unused.patch_issue107.diff"));
+				UnifiedDiff diff = UnifiedDiffReader.parseUnifiedDiff(
+								UnifiedDiffReaderTest.class.getResourceAsStream("01-bazel-strip-unused.patch_issue107.diff"),
+								path -> !path.endsWith(".java"));
+
+				List<UnifiedDiffFile> expected = new ArrayList<>();
+				for (UnifiedDiffFile file : all.getFiles()) {
+						if (!file.getToFile().endsWith(".java")) {
+								expected.add(file);
+						}
+				}
+				assertEquals(3, diff.getFiles().size());
+				for (int i = 0; i < expected.size(); i++) {
+						assertEquals(expected.get(i).getToFile(), diff.getFiles().get(i).getToFile());
+						assertEquals(
+										expected.get(i).getPatch().getDeltas(),
+										diff.getFiles().get(i).getPatch().getDeltas());
+				}
+				assertEquals(all.getTail(), diff.getTail());
+		}
+
+		@Test
+		public void testParseWithFileFilterUsesOldNameOfDeletedFile() throws IOException {
+				List<String> paths = new ArrayList<>();
+				UnifiedDiff diff = UnifiedDiffReader.parseUnifiedDiff(
+								new ByteArrayInputStream(("--- a/old.txt\n+++ /dev/null\n@@ -1 +0,0 @@\n-x\n"
+																+ "--- a/new.txt\n+++ b/new.txt\n@@ -1 +1 @@\n-x\n+y\n")
+												.getBytes(StandardCharsets.UTF_8)),
+								path -> paths.add(path) && path.startsWith("old"));
+
+				assertThat(paths).containsExactly("old.txt", "new.txt");
+				assertThat(diff.getFiles()).hasSize(1);
+				assertThat(diff.getFiles().get(0).getPatch().getDeltas()).hasSize(1);
+		}
 }
@@ -0,0 +1,69 @@
+package com.github.difflib.unifieddiff;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import com.github.difflib.DiffUtils;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import org.junit.jupiter.api.Test;
+
+public class UnifiedDiffStatsTest {
+
+		@Test
+		public void testSameCountsAsParsedDiff() throws IOException {
+				for (String resource : UnifiedDiffReaderParallelTest.RESOURCES) {
+						byte[] data = UnifiedDiffReaderParallelTest.read(resource);
+
+						UnifiedDiffStats expected =
+										UnifiedDiffStats.compute(UnifiedDiffReader.parseUnifiedDiff(new ByteArrayInputStream(data)));
+						UnifiedDiffStats actual = UnifiedDiffStats.compute(new ByteArrayInputStream(data));
+
+						assertEquals(expected.getFiles().toString(), actual.getFiles().toString(), resource);
+						assertEquals(expected.getInsertedLines(), actual.getInsertedLines(), resource);
+						assertEquals(expected.getDeletedLines(), actual.getDeletedLines(), resource);
+				}
+		}
+
+		@Test
+		public void testNumstat() throws IOException {
+				UnifiedDiffStats stats =
+								UnifiedDiffStats.compute(UnifiedDiffStatsTest.class.getResourceAsStream("jsqlparser_patch_1.diff"));
+
+				assertThat(stats.getFiles())
+								.extracting(Object::toString)
+								.containsExactly(
+												"3\t2\tsrc/main/jjtree/net/sf/jsqlparser/parser/JSqlParserCC.jjt",
+												"7\t0\tsrc/test/java/net/sf/jsqlparser/statement/select/SelectTest.java");
+				assertEquals(10, stats.getInsertedLines());
+				assertEquals(2, stats.getDeletedLines());
+		}
+
+		@Test
+		public void testCopyAndBinary() throws IOException {
+				UnifiedDiffStats.FileStats copy = UnifiedDiffStats.compute(
+												UnifiedDiffStatsTest.class.getResourceAsStream("problem_diff_parsing_issue193.diff"))
+								.getFiles()
+								.get(0);
+				UnifiedDiffStats.FileStats binary = UnifiedDiffStats.compute(
+												UnifiedDiffStatsTest.class.getResourceAsStream("problem_diff_issue182_add.diff"))
+								.getFiles()
+								.get(0);
+
+				assertThat(copy.isCopied()).isTrue();
+				assertThat(copy.isRenamed()).isFalse();
+				assertEquals("modules/configuration/config/web/pcf/account/AccountContactCV.pcf", copy.getFromFile());
+				assertThat(binary.isBinary()).isTrue();
+				assertThat(binary.toString()).startsWith("-\t-\t");
+		}
+
+		@Test
+		public void testComputeFromPatch() {
+				UnifiedDiffStats.FileStats stats = UnifiedDiffStats.compute(
+								DiffUtils.diff(Arrays.asList("a", "b", "c", "d"), Arrays.asList("a", "x", "y", "d", "e")));
+
+				assertEquals(3, stats.getInsertedLines());
+				assertEquals(2, stats.getDeletedLines());
+		}
+}
@@ -16,15 +16,20 @@
 package com.github.difflib.unifieddiff;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import com.github.difflib.DiffUtils;
 import com.github.difflib.patch.Patch;
 import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.StringWriter;
+import java.io.Writer;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Paths;
 import java.util.ArrayList;
@@ -81,6 +86,55 @@ public class UnifiedDiffWriterTest {
 				assertEquals("@@ -0,0 +1,2 @@", lines[2]);
 		}
 
+		@Test
+		public void testWriteToAppendableAndStream() throws URISyntaxException, IOException {
+				UnifiedDiff diff = UnifiedDiffReader.parseUnifiedDiff(
+								UnifiedDiffReaderTest.class.getResourceAsStream("jsqlparser_patch_1.diff"));
+				List<String> original = new ArrayList<>();
+				for (int i = 0; i < 4000; i++) {
+						original.add("original line " + i);
+				}
+
+				StringWriter writer = new StringWriter();
+				UnifiedDiffWriter.write(diff, f -> original, writer, 3);
+				StringBuilder builder = new StringBuilder();
+				UnifiedDiffWriter.write(diff, f -> original, builder, 3);
+				ByteArrayOutputStream stream = new ByteArrayOutputStream();
+				UnifiedDiffWriter.write(diff, f -> original, stream, StandardCharsets.UTF_8, 3);
+				List<String> lines = new ArrayList<>();
+				UnifiedDiffWriter.write(diff, f -> original, lines::add, 3);
+
+				assertEquals(writer.toString(), builder.toString());
+				assertEquals(writer.toString(), new String(stream.toByteArray(), StandardCharsets.UTF_8));
+				assertEquals(writer.toString(), String.join("\n", lines) + "\n");
+				assertTrue(writer.toString().contains("\n@@ -186,12 +186,13 @@\n original line 185\n"));
+		}
+
+		@Test
+		public void testWriteErrorIsThrown() throws IOException {
+				UnifiedDiff diff = UnifiedDiffReader.parseUnifiedDiff(
+								UnifiedDiffReaderTest.class.getResourceAsStream("jsqlparser_patch_1.diff"));
+
+				assertThrows(
+								IOException.class,
+								() -> UnifiedDiffWriter.write(
+												diff,
+												f -> Collections.emptyList(),
+												new Writer() {
+														@Override
+														public void write(char[] cbuf, int off, int len) throws IOException {
+																throw new IOException("disk full");
+														}
+
+														@Override
+														public void flush() {}
+
+														@Override
+														public void close() {}
+												},
+												3));
+		}
+
 		static String readFile(URI path, Charset encoding) throws IOException {
 				byte[] encoded = Files.readAllBytes(Paths.get(path));
 				return new String(encoded, encoding);